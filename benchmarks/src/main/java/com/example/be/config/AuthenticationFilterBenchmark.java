@@ -0,0 +1,84 @@
+package com.example.be.config;
+
+import com.example.be.entity.User;
+import com.example.be.enums.AuthProvider;
+import com.example.be.exception.BusinessExceptionMetrics;
+import com.example.be.repository.InMemoryUserRepository;
+import com.example.be.repository.UserRepository;
+import com.example.be.service.BenchmarkServices;
+import com.example.be.service.CustomUserDetailsService;
+import com.example.be.service.JwtService;
+import com.example.be.service.TokenRevocationService;
+import com.example.be.service.UserStateCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Toàn bộ đường đi của một request có Bearer token qua AuthenticationFilter.
+ * Redis không được kết nối: danh sách thu hồi rỗng nên không bao giờ cần gọi Redis.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthenticationFilterBenchmark {
+
+    @Param({"false", "true"})
+    boolean claimsPrincipal;
+
+    @Param({"false", "true"})
+    boolean verifiedCache;
+
+    AuthenticationFilter filter;
+    MockHttpServletRequest request;
+    MockHttpServletResponse response;
+    FilterChain chain;
+
+    @Setup
+    public void setUp(Blackhole blackhole) throws Exception {
+        User user = User.builder()
+                .id(1L)
+                .email("player@example.com")
+                .password("$2a$10$abcdefghijklmnopqrstuuJ8yYp0yXyM9mKp9zv0Fq7p3kR3C7QHa")
+                .authProvider(AuthProvider.NONE)
+                .build();
+        UserRepository userRepository = InMemoryUserRepository.of(user);
+        StringRedisTemplate redisTemplate = new StringRedisTemplate();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        JwtService jwtService = BenchmarkServices.jwtService(verifiedCache);
+        filter = new AuthenticationFilter(
+                jwtService,
+                new CustomUserDetailsService(userRepository),
+                new UserStateCache(userRepository, 10_000, 10),
+                new TokenRevocationService(redisTemplate, BenchmarkServices.JWT_EXPIRATION_MS, 10_000),
+                meterRegistry,
+                new BusinessExceptionMetrics(meterRegistry)
+        );
+        ReflectionTestUtils.setField(filter, "claimsPrincipalEnabled", claimsPrincipal);
+        filter.afterPropertiesSet();
+
+        request = new MockHttpServletRequest("GET", "/api/profile");
+        request.addHeader("Authorization", "Bearer " + jwtService.generateToken(user));
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Benchmark
+    public void authenticate() throws Exception {
+        filter.doFilter(request, response, chain);
+        SecurityContextHolder.clearContext();
+    }
+}
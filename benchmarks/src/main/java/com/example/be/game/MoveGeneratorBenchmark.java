@@ -0,0 +1,65 @@
+package com.example.be.game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Số nước đi sinh ra mỗi giây trên các tay 13 lá ngẫu nhiên (cột "moves" trong kết quả),
+ * khi đánh tự do và khi phải chặn một bộ lấy ngẫu nhiên từ tay khác.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGeneratorBenchmark {
+
+    static final int HANDS = 1024;
+
+    long[] hands = new long[HANDS];
+    int[] targets = new int[HANDS];
+    long[] buffer = new long[MoveGenerator.MAX_MOVES];
+    int next;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long moves;
+    }
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(2024);
+        long[] deal = new long[Deck.PLAYERS];
+        for (int i = 0; i < HANDS; i++) {
+            Deck.deal(random, deal);
+            hands[i] = deal[0];
+            int count = MoveGenerator.generate(deal[1], Combination.INVALID, buffer);
+            targets[i] = Combination.classify(buffer[random.nextInt(count)]);
+        }
+    }
+
+    @Benchmark
+    public int lead(Counters counters) {
+        int count = MoveGenerator.generate(hands[next++ & (HANDS - 1)], Combination.INVALID, buffer);
+        counters.moves += count;
+        return count;
+    }
+
+    @Benchmark
+    public int respond(Counters counters) {
+        int index = next++ & (HANDS - 1);
+        int count = MoveGenerator.generate(hands[index], targets[index], buffer);
+        counters.moves += count;
+        return count;
+    }
+
+    @Benchmark
+    public int classify() {
+        int index = next++ & (HANDS - 1);
+        return Combination.classify(hands[index] & -hands[index]) ^ Combination.classify(hands[index] & 0xFFFFL);
+    }
+}
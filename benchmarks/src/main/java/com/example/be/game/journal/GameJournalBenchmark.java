@@ -0,0 +1,52 @@
+package com.example.be.game.journal;
+
+import com.example.be.game.Cards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Thời gian ghi một nước đánh vào journal (mã hóa, CRC32C, chép vào segment ánh xạ bộ nhớ). Force xuống đĩa
+ * chạy trên luồng nền nên không nằm trong số đo; thêm {@code -t 4} để xem tranh chấp khóa giữa các luồng actor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameJournalBenchmark {
+
+    Path dir;
+    GameJournal journal;
+    long cards = Cards.parse("7♠ 7♥");
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("journal-bench");
+        journal = new GameJournal(new SimpleMeterRegistry(), true, dir.toString(), DataSize.ofMegabytes(64),
+                10, 64, 60_000, false);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        journal.shutdown();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void appendPlay() {
+        journal.play("room-42", 2, cards, false, 3, false);
+    }
+}
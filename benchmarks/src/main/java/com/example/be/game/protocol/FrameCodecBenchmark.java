@@ -0,0 +1,56 @@
+package com.example.be.game.protocol;
+
+import com.example.be.game.Cards;
+import com.example.be.game.Combination;
+import com.example.be.game.room.RoomEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mã hóa/giải mã sự kiện {@code played} (loại frame nhiều nhất trong một ván) bằng định dạng nhị phân
+ * so với JSON qua Jackson. Thêm {@code -prof gc} để xem số byte cấp phát mỗi frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameCodecBenchmark {
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    RoomEvent played;
+    byte[] binary;
+    String json;
+
+    @Setup
+    public void setUp() throws Exception {
+        long cards = Cards.parse("7♠ 7♥");
+        played = new RoomEvent(RoomEvent.PLAYED, "room-42", 2, null, cards, Combination.classify(cards), 9, 3, false, null, null);
+        binary = BinaryFrameCodec.encode(played);
+        json = objectMapper.writeValueAsString(played);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return BinaryFrameCodec.encode(played);
+    }
+
+    @Benchmark
+    public String encodeJson() throws Exception {
+        return objectMapper.writeValueAsString(played);
+    }
+
+    @Benchmark
+    public RoomEvent decodeBinary() {
+        return BinaryFrameCodec.decodeEvent(ByteBuffer.wrap(binary));
+    }
+
+    @Benchmark
+    public RoomEvent decodeJson() throws Exception {
+        return objectMapper.readValue(json, RoomEvent.class);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.be.mapper;
+
+import com.example.be.dto.response.ProfileResponse;
+import com.example.be.entity.User;
+import com.example.be.enums.AuthProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    UserMapper userMapper;
+    User user;
+
+    @Setup
+    public void setUp() {
+        userMapper = new UserMapperImpl();
+        user = User.builder()
+                .id(1L)
+                .email("player@example.com")
+                .fullName("Nguyễn Văn A")
+                .avatar("avatars/abc.png")
+                .authProvider(AuthProvider.NONE)
+                .build();
+    }
+
+    @Benchmark
+    public ProfileResponse toProfileResponse() {
+        return userMapper.toProfileResponse(user);
+    }
+}
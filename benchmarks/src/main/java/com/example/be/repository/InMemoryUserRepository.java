@@ -0,0 +1,47 @@
+package com.example.be.repository;
+
+import com.example.be.entity.User;
+import com.example.be.repository.projection.UserAuthView;
+import com.example.be.repository.projection.UserProfileView;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * UserRepository trong bộ nhớ cho benchmark, không cần MySQL.
+ */
+public final class InMemoryUserRepository {
+
+    private InMemoryUserRepository() {
+    }
+
+    public static UserRepository of(User... users) {
+        Map<String, User> byEmail = new ConcurrentHashMap<>();
+        for (User user : users) {
+            byEmail.put(user.getEmail(), user);
+        }
+
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByEmail" -> Optional.ofNullable(byEmail.get((String) args[0]));
+                    case "existsByEmail" -> byEmail.containsKey((String) args[0]);
+                    case "findAuthViewByEmail" -> Optional.ofNullable(byEmail.get((String) args[0]))
+                            .map(user -> new UserAuthView(user.getEmail(), user.getPassword(), user.getRole(), user.getActive(), user.getVersion()));
+                    case "findProfileViewByEmail" -> Optional.ofNullable(byEmail.get((String) args[0]))
+                            .map(user -> new UserProfileView(user.getId(), user.getEmail(), user.getFullName(), user.getAvatar(), user.getRole(), user.getVersion()));
+                    case "save" -> {
+                        User user = (User) args[0];
+                        byEmail.put(user.getEmail(), user);
+                        yield user;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryUserRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.be.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Dựng các service với cấu hình cố định, không cần Spring context.
+ */
+public final class BenchmarkServices {
+
+    public static final String JWT_SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+    public static final long JWT_EXPIRATION_MS = 3_600_000;
+
+    private BenchmarkServices() {
+    }
+
+    public static JwtService jwtService(boolean verifiedCacheEnabled) {
+        JwtService jwtService = new JwtService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtAccessExpiration", JWT_EXPIRATION_MS);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheEnabled", verifiedCacheEnabled);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaxSize", 10_000L);
+        jwtService.init();
+        return jwtService;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.be.service;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.be.entity.User;
+import com.example.be.enums.AuthProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    @Param({"false", "true"})
+    boolean verifiedCache;
+
+    JwtService jwtService;
+    User user;
+    String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchmarkServices.jwtService(verifiedCache);
+        user = User.builder()
+                .id(1L)
+                .email("player@example.com")
+                .authProvider(AuthProvider.NONE)
+                .build();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public DecodedJWT verifyToken() {
+        return jwtService.verifyToken(token);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.be.service;
+
+import com.example.be.dto.request.RegisterRequest;
+import com.example.be.enums.OtpType;
+import com.example.be.utils.PendingRegistrationCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OtpServiceBenchmark {
+
+    ObjectMapper objectMapper;
+    RegisterRequest request;
+    String json;
+    PendingRegistration registration;
+    byte[] packed;
+    String email = "player@example.com";
+
+    @Setup
+    public void setUp() throws Exception {
+        // Cùng cấu hình module với ObjectMapper mà Spring Boot tạo
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        request = RegisterRequest.builder()
+                .fullName("Nguyễn Văn A")
+                .email(email)
+                .password("secret123")
+                .confirmPassword("secret123")
+                .build();
+        json = objectMapper.writeValueAsString(request);
+        registration = new PendingRegistration(request.getFullName(), "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z0XbKXYz0mQGcQvM9iY1G4aK");
+        packed = PendingRegistrationCodec.encode(registration);
+    }
+
+    @Benchmark
+    public String buildOtpKey() {
+        return OtpService.getStateKey(email, OtpType.REGISTER);
+    }
+
+    @Benchmark
+    public String serializeRegisterRequest() throws Exception {
+        return objectMapper.writeValueAsString(request);
+    }
+
+    @Benchmark
+    public RegisterRequest deserializeRegisterRequest() throws Exception {
+        return objectMapper.readValue(json, RegisterRequest.class);
+    }
+
+    @Benchmark
+    public byte[] encodePendingRegistration() {
+        return PendingRegistrationCodec.encode(registration);
+    }
+
+    @Benchmark
+    public PendingRegistration decodePendingRegistration() {
+        return PendingRegistrationCodec.decode(packed);
+    }
+}
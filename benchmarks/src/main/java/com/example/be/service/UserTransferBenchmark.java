@@ -0,0 +1,174 @@
+package com.example.be.service;
+
+import com.example.be.dto.response.ImportUsersResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Xuất/nhập 1 triệu người dùng với heap giới hạn 128 MB (H2 file, chế độ MySQL).
+ * Điểm số là số dòng/giây; chạy kèm -prof gc để xem số byte cấp phát trên mỗi dòng.
+ * Peak heap của mỗi lần chạy được in ra khi kết thúc.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(UserTransferBenchmark.ROWS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx128m")
+public class UserTransferBenchmark {
+
+    static final int ROWS = 1_000_000;
+
+    static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS users ("
+            + "id BIGINT AUTO_INCREMENT PRIMARY KEY, email VARCHAR(255) NOT NULL UNIQUE, password VARCHAR(255), "
+            + "full_name VARCHAR(255), avatar VARCHAR(255), role VARCHAR(255), auth_provider VARCHAR(255), "
+            + "active BOOLEAN, created_at TIMESTAMP, updated_at TIMESTAMP)";
+
+    static final String PASSWORD_HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3Ej4xyb5uvWQ/PiwBu1mL0K";
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        Path directory;
+        JdbcTemplate jdbcTemplate;
+        UserTransferService userTransferService;
+
+        void open(String name) throws IOException {
+            directory = Files.createTempDirectory("user-transfer-");
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:file:" + directory.resolve(name) + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+
+            ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+            jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute(CREATE_TABLE);
+            userTransferService = new UserTransferService(jdbcTemplate, objectMapper, 1000, 1000);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            jdbcTemplate.execute("SHUTDOWN");
+            FileSystemUtils.deleteRecursively(directory);
+            System.out.printf("%npeak heap used: %d MB%n", peakHeapUsed() / (1024 * 1024));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExportState extends Database {
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            open("export");
+            userTransferService.importNdjson(new GeneratedUsers(ROWS));
+            resetPeakHeap();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ImportState extends Database {
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            open("import");
+            resetPeakHeap();
+        }
+
+        @Setup(Level.Invocation)
+        public void truncate() {
+            jdbcTemplate.execute("TRUNCATE TABLE users");
+        }
+    }
+
+    @Benchmark
+    public long exportNdjson(ExportState state) throws IOException {
+        return state.userTransferService.exportNdjson(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public long exportCsv(ExportState state) throws IOException {
+        return state.userTransferService.exportCsv(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public ImportUsersResponse importNdjson(ImportState state) throws IOException {
+        return state.userTransferService.importNdjson(new GeneratedUsers(ROWS));
+    }
+
+    private static long peakHeapUsed() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    /**
+     * Sinh NDJSON người dùng theo từng dòng, không giữ toàn bộ dữ liệu trong bộ nhớ.
+     */
+    static class GeneratedUsers extends InputStream {
+
+        final int rows;
+        int row;
+        byte[] line = new byte[0];
+        int position;
+
+        GeneratedUsers(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (!fill()) {
+                return -1;
+            }
+            return line[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(length, line.length - position);
+            System.arraycopy(line, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean fill() {
+            if (position < line.length) {
+                return true;
+            }
+            if (row == rows) {
+                return false;
+            }
+            row++;
+            line = ("{\"email\":\"player" + row + "@example.com\",\"password\":\"" + PASSWORD_HASH
+                    + "\",\"fullName\":\"Người chơi " + row + "\",\"role\":\"USER\",\"authProvider\":\"NONE\",\"active\":true}\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+#!/usr/bin/env sh
+# Đo thời gian khởi động (từ lúc JVM chạy tới khi context refresh xong) cho 3 chế độ:
+#   default  : jar thường
+#   aot      : -Dspring.aot.enabled=true
+#   aot+cds  : AOT + AppCDS archive
+# Không cần MySQL/Redis thật: dùng giá trị giả trong scripts/startup-training.env và spring.context.exit=onRefresh.
+# Dùng: scripts/measure-startup.sh [số lần chạy mỗi chế độ, mặc định 5]
+set -eu
+
+RUNS=${1:-5}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+WORK="$ROOT/target/startup"
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+cd "$ROOT"
+sh ./mvnw -B -q -DskipTests -Paot package
+
+rm -rf "$WORK" && mkdir -p "$WORK"
+cp target/*-exec.jar "$WORK/app.jar"
+cd "$WORK"
+"$JAVA" -Djarmode=tools -jar app.jar extract --destination application > /dev/null
+
+set -a
+. "$ROOT/scripts/startup-training.env"
+set +a
+export AVATAR_STORAGE_DIR="$WORK/avatars"
+
+COMMON="-Dspring.context.exit=onRefresh -Dspring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false"
+
+# Lần chạy huấn luyện để tạo archive
+"$JAVA" -XX:ArchiveClassesAtExit=application/app.jsa -Dspring.aot.enabled=true $COMMON \
+    -jar application/app.jar > training.log 2>&1
+
+now_ms() {
+    date +%s%3N
+}
+
+measure() {
+    name=$1
+    shift
+    : > "$name.times"
+    i=0
+    while [ "$i" -lt "$RUNS" ]; do
+        start=$(now_ms)
+        "$JAVA" "$@" $COMMON -jar application/app.jar > "$name.log" 2>&1
+        end=$(now_ms)
+        echo $((end - start)) >> "$name.times"
+        i=$((i + 1))
+    done
+    median=$(sort -n "$name.times" | awk '{ a[NR] = $1 } END { print a[int((NR + 1) / 2)] }')
+    printf '%-8s median %6s ms  (%s)\n' "$name" "$median" "$(tr '\n' ' ' < "$name.times")"
+}
+
+measure default -Dspring.aot.enabled=false
+measure aot -Dspring.aot.enabled=true
+measure aot+cds -Dspring.aot.enabled=true -XX:SharedArchiveFile=application/app.jsa
@@ -1,9 +1,17 @@
 package com.example.be.config;
 
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.be.enums.Role;
+import com.example.be.exception.BusinessException;
+import com.example.be.exception.BusinessExceptionMetrics;
 import com.example.be.service.CustomUserDetailsService;
 import com.example.be.service.JwtService;
+import com.example.be.service.TokenRevocationService;
+import com.example.be.service.UserStateCache;
+import com.example.be.utils.StageTimers;
 import io.micrometer.common.lang.NonNullApi;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,8 +19,10 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,11 +32,29 @@ import java.io.IOException;
 @Component
 @NonNullApi
 @RequiredArgsConstructor
-@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@FieldDefaults(level = AccessLevel.PRIVATE)
 public class AuthenticationFilter extends OncePerRequestFilter {
 
-    JwtService jwtService;
-    CustomUserDetailsService customUserDetailsService;
+    final JwtService jwtService;
+    final CustomUserDetailsService customUserDetailsService;
+    final UserStateCache userStateCache;
+    final TokenRevocationService tokenRevocationService;
+    final MeterRegistry meterRegistry;
+    final BusinessExceptionMetrics businessExceptionMetrics;
+
+    @Value("${auth.claims-principal.enabled}")
+    boolean claimsPrincipalEnabled;
+
+    Timer verifyTimer;
+    Timer revocationTimer;
+    Timer principalTimer;
+
+    @Override
+    protected void initFilterBean() {
+        verifyTimer = meterRegistry.timer("auth.filter.latency", "stage", "verify");
+        revocationTimer = meterRegistry.timer("auth.filter.latency", "stage", "revocation");
+        principalTimer = meterRegistry.timer("auth.filter.latency", "stage", "principal");
+    }
 
     @Override
     protected void doFilterInternal(
@@ -34,16 +62,31 @@ public class AuthenticationFilter extends OncePerRequestFilter {
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
 
-        String header = request.getHeader("Authorization");
-        if(header != null && header.startsWith("Bearer ")) {
-            String token = header.substring(7);
+        String token = extractToken(request);
+        if(token != null) {
             try {
+                long start = System.nanoTime();
                 DecodedJWT decoded = jwtService.verifyToken(token);
-                String email = decoded.getSubject();
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(email);
+                start = StageTimers.lap(verifyTimer, start);
+
+                boolean revoked = tokenRevocationService.isRevoked(decoded);
+                start = StageTimers.lap(revocationTimer, start);
+                if (revoked) {
+                    throw new BusinessException("Token đã bị thu hồi. Vui lòng đăng nhập lại.", 401);
+                }
+
+                UserDetails userDetails = claimsPrincipalEnabled
+                        ? loadUserFromClaims(decoded)
+                        : customUserDetailsService.loadUserByUsername(decoded.getSubject());
+                StageTimers.lap(principalTimer, start);
+
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                authentication.setDetails(decoded);
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             } catch (Exception ex) {
+                if (ex instanceof BusinessException businessException) {
+                    businessExceptionMetrics.record(businessException);
+                }
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.getWriter().write(ex.getMessage());
                 return;
@@ -51,4 +94,46 @@ public class AuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Token từ header {@code Authorization: Bearer}. Riêng handshake WebSocket nhận thêm query {@code access_token}
+     * vì WebSocket API của trình duyệt không đặt được header (query này có thể bị ghi vào access log của proxy).
+     */
+    private static String extractToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            return header.substring(7);
+        }
+        if (GameWebSocketConfig.GAME_PATH.equals(request.getServletPath())) {
+            return request.getParameter("access_token");
+        }
+        return null;
+    }
+
+    /**
+     * Dựng principal trực tiếp từ claims của JWT, chỉ đối chiếu active/role với near-cache.
+     */
+    private UserDetails loadUserFromClaims(DecodedJWT decoded) {
+        String email = decoded.getSubject();
+        Role role = Role.valueOf(decoded.getClaim("role").asString());
+
+        UserStateCache.UserState state = userStateCache.get(email);
+        if (state == null) {
+            throw new BusinessException("Email không tồn tại trong hệ thống", 404);
+        }
+
+        if (!state.active()) {
+            throw new BusinessException("Tài khoản đã bị vô hiệu hóa", 401);
+        }
+
+        // Quyền đã thay đổi kể từ khi cấp token → yêu cầu đăng nhập lại
+        if (state.role() != role) {
+            throw new BusinessException("Token không còn hợp lệ. Vui lòng đăng nhập lại.", 401);
+        }
+
+        return User.withUsername(email)
+                .password("")
+                .roles(role.name())
+                .build();
+    }
 }
@@ -0,0 +1,61 @@
+package com.example.be.config;
+
+import com.example.be.game.protocol.BinaryFrameCodec;
+import com.example.be.game.ws.GameEndpoint;
+import com.example.be.game.ws.GameHandshakeConfigurator;
+import jakarta.servlet.ServletContext;
+import jakarta.websocket.DeploymentException;
+import jakarta.websocket.server.ServerContainer;
+import jakarta.websocket.server.ServerEndpointConfig;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.ServletContextAware;
+
+import java.util.List;
+
+/**
+ * Đăng ký {@link GameEndpoint} với WebSocket container của Tomcat (Jakarta WebSocket API có sẵn trong
+ * tomcat-embed-websocket), tương tự ServerEndpointExporter của spring-websocket.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class GameWebSocketConfig implements ServletContextAware, SmartInitializingSingleton {
+
+    public static final String GAME_PATH = "/ws/game";
+
+    final GameHandshakeConfigurator gameHandshakeConfigurator;
+
+    ServletContext servletContext;
+
+    @Override
+    public void setServletContext(ServletContext servletContext) {
+        this.servletContext = servletContext;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        ServerContainer container = servletContext != null
+                ? (ServerContainer) servletContext.getAttribute(ServerContainer.class.getName())
+                : null;
+        if (container == null) {
+            // Ví dụ khi chạy test với MockMvc, không có web server thật
+            log.warn("Không tìm thấy WebSocket ServerContainer, bỏ qua đăng ký {}", GAME_PATH);
+            return;
+        }
+        try {
+            container.addEndpoint(ServerEndpointConfig.Builder.create(GameEndpoint.class, GAME_PATH)
+                    .configurator(gameHandshakeConfigurator)
+                    // Client không gửi subprotocol nào thì dùng JSON
+                    .subprotocols(List.of(BinaryFrameCodec.SUBPROTOCOL))
+                    .build());
+        } catch (DeploymentException e) {
+            throw new IllegalStateException("Không thể đăng ký WebSocket endpoint " + GAME_PATH, e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.be.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+@Configuration
+public class GoogleConfig {
+
+    @Bean
+    public RestTemplate googleRestTemplate(
+            @Value("${google.http.connect-timeout-ms}") long connectTimeoutMs,
+            @Value("${google.http.read-timeout-ms}") long readTimeoutMs) {
+        // HttpClient của JDK giữ và tái sử dụng kết nối keep-alive/HTTP2 đến Google
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(requestFactory);
+    }
+}
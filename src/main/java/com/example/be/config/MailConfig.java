@@ -0,0 +1,38 @@
+package com.example.be.config;
+
+import com.example.be.service.PooledMailSender;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+
+@Configuration
+public class MailConfig {
+
+    // Tắt pool thì không mở kết nối SMTP nào ngoài JavaMailSender của Spring Boot
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "mail.pool.enabled", havingValue = "true")
+    public PooledMailSender pooledMailSender(
+            JavaMailSenderImpl mailSender,
+            @Value("${mail.pool.max-connections}") int maxConnections,
+            @Value("${mail.pool.max-idle-ms}") long maxIdleMs,
+            @Value("${mail.pool.validate-after-ms}") long validateAfterMs,
+            @Value("${mail.pool.borrow-timeout-ms}") long borrowTimeoutMs) {
+        // Dùng chung Session (thuộc tính SMTP, STARTTLS, AUTH) với JavaMailSender của Spring Boot
+        return new PooledMailSender(
+                mailSender.getSession(),
+                mailSender.getProtocol(),
+                mailSender.getHost(),
+                mailSender.getPort(),
+                mailSender.getUsername(),
+                mailSender.getPassword(),
+                maxConnections,
+                Duration.ofMillis(maxIdleMs),
+                Duration.ofMillis(validateAfterMs),
+                Duration.ofMillis(borrowTimeoutMs)
+        );
+    }
+}
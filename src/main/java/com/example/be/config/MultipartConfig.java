@@ -0,0 +1,18 @@
+package com.example.be.config;
+
+import com.example.be.service.AvatarStorageService;
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MultipartConfig {
+
+    @Bean
+    public MultipartConfigElement multipartConfigElement(MultipartProperties properties, AvatarStorageService avatarStorageService) {
+        // Part được ghi thẳng xuống thư mục tạm của kho ảnh → transferTo chỉ cần đổi tên file
+        properties.setLocation(avatarStorageService.getTmpDir().toString());
+        return properties.createMultipartConfig();
+    }
+}
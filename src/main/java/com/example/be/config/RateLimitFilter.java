@@ -0,0 +1,198 @@
+package com.example.be.config;
+
+import com.example.be.dto.response.ApiResponse;
+import com.example.be.service.RateLimiter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.common.lang.NonNullApi;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Giới hạn tần suất gọi /api/auth/** theo IP và theo email trong body (xem {@link RateLimiter}).
+ * Request vượt giới hạn nhận 429 kèm header Retry-After.
+ */
+@Component
+@NonNullApi
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String AUTH_PATH_PREFIX = "/api/auth/";
+    static final int MAX_BODY_BYTES = 16 * 1024;
+
+    final RateLimiter rateLimiter;
+    final ObjectMapper objectMapper;
+
+    @Value("${rate-limit.enabled}")
+    boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getServletPath().startsWith(AUTH_PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        HttpServletRequest cachedRequest = request;
+        String email = null;
+
+        // Đọc body JSON một lần để lấy email, controller đọc lại từ bản đã cache.
+        // Body không rõ độ dài (chunked) cũng được đọc, tối đa MAX_BODY_BYTES
+        long contentLength = request.getContentLengthLong();
+        if (contentLength != 0 && isJson(request)) {
+            byte[] body = contentLength <= MAX_BODY_BYTES
+                    ? request.getInputStream().readNBytes(MAX_BODY_BYTES + 1)
+                    : null;
+            if (body == null || body.length > MAX_BODY_BYTES) {
+                // Vẫn tính vào giới hạn theo IP để request quá lớn không được gửi tự do
+                long waitMillis = rateLimiter.tryAcquire(request.getRemoteAddr(), null);
+                if (waitMillis > 0) {
+                    reject(response, waitMillis);
+                } else {
+                    writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Nội dung yêu cầu quá lớn.");
+                }
+                return;
+            }
+            cachedRequest = new CachedBodyRequest(request, body);
+            email = extractEmail(body);
+        }
+
+        long waitMillis = rateLimiter.tryAcquire(request.getRemoteAddr(), email);
+        if (waitMillis > 0) {
+            reject(response, waitMillis);
+            return;
+        }
+        filterChain.doFilter(cachedRequest, response);
+    }
+
+    private boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    private String extractEmail(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).path("email");
+            return email.isTextual() && !email.asText().isBlank()
+                    ? email.asText().trim().toLowerCase(Locale.ROOT)
+                    : null;
+        } catch (IOException e) {
+            // Body không hợp lệ sẽ bị controller từ chối, chỉ giới hạn theo IP
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitMillis) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitMillis + 999) / 1000);
+
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        writeError(response, HttpStatus.TOO_MANY_REQUESTS,
+                "Bạn đã gửi quá nhiều yêu cầu. Vui lòng thử lại sau " + retryAfterSeconds + " giây.");
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.builder()
+                .success(false)
+                .message(message)
+                .data(null)
+                .build());
+    }
+
+    /**
+     * Request với body đã được đọc sẵn vào bộ nhớ, cho phép đọc lại.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // Body đã nằm trong bộ nhớ: báo có dữ liệu và đọc xong ngay
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(
+                    new ByteArrayInputStream(body),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.be.config;
+
+import com.example.be.service.TokenRevocationService;
+import com.example.be.service.UserCacheSynchronizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+public class RedisConfig {
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            UserCacheSynchronizer userCacheSynchronizer,
+            TokenRevocationService tokenRevocationService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+
+        // Xóa các cache User (near-cache trạng thái, second-level cache) khi người dùng thay đổi
+        container.addMessageListener(
+                (message, pattern) -> userCacheSynchronizer.onInvalidationMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(UserCacheSynchronizer.INVALIDATION_CHANNEL)
+        );
+
+        // Đồng bộ danh sách token bị thu hồi giữa các node
+        container.addMessageListener(
+                (message, pattern) -> tokenRevocationService.onRevocationMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(TokenRevocationService.REVOCATION_CHANNEL)
+        );
+        return container;
+    }
+}
@@ -3,8 +3,10 @@ package com.example.be.config;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -26,6 +28,7 @@ import java.util.List;
 public class SecurityConfig {
 
     AuthenticationFilter authenticationFilter;
+    RateLimitFilter rateLimitFilter;
 
     @Bean
     CorsConfigurationSource corsConfigurationSource() {
@@ -49,16 +52,26 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/", "/error").permitAll()
+                        .requestMatchers("/api/auth/logout/**").authenticated()
                         .requestMatchers("/api/auth/**").permitAll()
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/avatars/**").permitAll()
+                        // Handshake WebSocket bị từ chối ngay ở HTTP nếu token thiếu, sai hoặc đã bị thu hồi
+                        .requestMatchers(HttpMethod.GET, GameWebSocketConfig.GAME_PATH).authenticated()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        // Metrics lộ tên endpoint, tỉ lệ lỗi và tải hệ thống → chỉ ADMIN được scrape
+                        .requestMatchers("/actuator/prometheus").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(authenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                // Chặn request vượt giới hạn trước khi tốn công xác thực token
+                .addFilterBefore(rateLimitFilter, AuthenticationFilter.class)
                 .build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 }
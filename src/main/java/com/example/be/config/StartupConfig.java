@@ -0,0 +1,40 @@
+package com.example.be.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StartupConfig {
+
+    static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
+    /**
+     * Khởi tạo trễ các bean của springdoc (OpenAPI, Swagger UI) và SpringDocConfig:
+     * chỉ được dựng khi có request đầu tiên tới /v3/api-docs hoặc /swagger-ui, không làm chậm lúc khởi động.
+     */
+    @Bean
+    static BeanFactoryPostProcessor lazyApiDocsPostProcessor() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (isApiDocsBean(beanFactory, definition)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    private static boolean isApiDocsBean(ConfigurableListableBeanFactory beanFactory, BeanDefinition definition) {
+        String className = definition.getBeanClassName();
+        // Bean khai báo bằng @Bean không có class riêng → xét class cấu hình chứa phương thức đó
+        if (className == null && definition.getFactoryBeanName() != null
+                && beanFactory.containsBeanDefinition(definition.getFactoryBeanName())) {
+            className = beanFactory.getBeanDefinition(definition.getFactoryBeanName()).getBeanClassName();
+        }
+        return className != null
+                && (className.startsWith(SPRINGDOC_PACKAGE) || className.equals(SpringDocConfig.class.getName()));
+    }
+}
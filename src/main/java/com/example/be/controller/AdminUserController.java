@@ -0,0 +1,69 @@
+package com.example.be.controller;
+
+import com.example.be.dto.response.ApiResponse;
+import com.example.be.dto.response.ImportUsersResponse;
+import com.example.be.service.UserTransferService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/admin/users")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Tag(
+        name = "Admin - Users",
+        description = "API xuất/nhập người dùng hàng loạt (chỉ dành cho ADMIN)"
+)
+public class AdminUserController {
+
+    static final String NDJSON_VALUE = "application/x-ndjson";
+
+    UserTransferService userTransferService;
+
+    @Operation(
+            summary = "Xuất toàn bộ người dùng (format = ndjson | csv)"
+    )
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+
+        // Ghi từng dòng ra response ngay khi đọc từ cursor, không giữ dữ liệu trong bộ nhớ
+        StreamingResponseBody body = csv
+                ? userTransferService::exportCsv
+                : userTransferService::exportNdjson;
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users." + (csv ? "csv" : "ndjson"))
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
+    }
+
+    @Operation(
+            summary = "Nhập người dùng từ NDJSON (mật khẩu là chuỗi BCrypt đã hash)"
+    )
+    @PostMapping(value = "/import", consumes = {NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ApiResponse<ImportUsersResponse>> importUsers(HttpServletRequest request) throws IOException {
+        ImportUsersResponse response = userTransferService.importNdjson(request.getInputStream());
+
+        return ResponseEntity.ok(
+                ApiResponse.<ImportUsersResponse>builder()
+                        .success(true)
+                        .message("Đã nhập " + response.getImported() + " người dùng")
+                        .data(response)
+                        .build()
+        );
+    }
+}
@@ -12,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -123,4 +124,32 @@ public class AuthController {
                 .data(response)
                 .build());
     }
+
+    @Operation(
+            summary = "Đăng xuất (thu hồi token hiện tại)"
+    )
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(Authentication authentication) {
+        authService.logout(authentication);
+        return ResponseEntity.ok(
+                ApiResponse.<Void>builder()
+                        .success(true)
+                        .message("Đăng xuất thành công")
+                        .build()
+        );
+    }
+
+    @Operation(
+            summary = "Đăng xuất khỏi tất cả thiết bị"
+    )
+    @PostMapping("/logout/all")
+    public ResponseEntity<ApiResponse<Void>> logoutAll(Authentication authentication) {
+        authService.logoutAll(authentication);
+        return ResponseEntity.ok(
+                ApiResponse.<Void>builder()
+                        .success(true)
+                        .message("Đã đăng xuất khỏi tất cả thiết bị")
+                        .build()
+        );
+    }
 }
@@ -0,0 +1,71 @@
+package com.example.be.controller;
+
+import com.example.be.dto.request.JoinMatchmakingRequest;
+import com.example.be.dto.response.ApiResponse;
+import com.example.be.dto.response.MatchmakingResponse;
+import com.example.be.service.MatchmakingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("api/matchmaking")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Tag(
+        name = "Matchmaking",
+        description = "API hàng chờ ghép bàn theo mức cược"
+)
+public class MatchmakingController {
+
+    MatchmakingService matchmakingService;
+
+    @PostMapping("/queue")
+    @Operation(
+            summary = "Vào hàng chờ của một mức cược"
+    )
+    public ResponseEntity<ApiResponse<MatchmakingResponse>> join(
+            Authentication authentication, @Valid @RequestBody JoinMatchmakingRequest request
+    ) {
+        MatchmakingResponse response = matchmakingService.join(authentication.getName(), request.getStake());
+        ApiResponse<MatchmakingResponse> apiResponse = ApiResponse.<MatchmakingResponse>builder()
+                .success(true)
+                .message("Đã vào hàng chờ")
+                .data(response)
+                .build();
+        return ResponseEntity.ok(apiResponse);
+    }
+
+    @DeleteMapping("/queue")
+    @Operation(
+            summary = "Rời hàng chờ hoặc bỏ bàn đã ghép"
+    )
+    public ResponseEntity<ApiResponse<Void>> leave(Authentication authentication) {
+        matchmakingService.leave(authentication.getName());
+        ApiResponse<Void> apiResponse = ApiResponse.<Void>builder()
+                .success(true)
+                .message("Đã rời hàng chờ")
+                .build();
+        return ResponseEntity.ok(apiResponse);
+    }
+
+    @GetMapping("/status")
+    @Operation(
+            summary = "Trạng thái ghép bàn: đang chờ (vị trí) hoặc đã ghép (id phòng)"
+    )
+    public ResponseEntity<ApiResponse<MatchmakingResponse>> getStatus(Authentication authentication) {
+        MatchmakingResponse response = matchmakingService.getStatus(authentication.getName());
+        ApiResponse<MatchmakingResponse> apiResponse = ApiResponse.<MatchmakingResponse>builder()
+                .success(true)
+                .message("Lấy trạng thái ghép bàn thành công")
+                .data(response)
+                .build();
+        return ResponseEntity.ok(apiResponse);
+    }
+}
@@ -9,9 +9,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
 @RestController
 @RequiredArgsConstructor
@@ -29,14 +33,24 @@ public class ProfileController {
     @Operation(
             summary = "Lấy thông tin cá nhân"
     )
-    public ResponseEntity<ApiResponse<ProfileResponse>> getProfile(Authentication authentication) {
+    public ResponseEntity<ApiResponse<ProfileResponse>> getProfile(Authentication authentication, WebRequest webRequest) {
+        // Client đang giữ đúng version → 304, không đọc DB, không map, không serialize
+        String currentETag = profileService.currentETag(authentication);
+        if (currentETag != null && webRequest.checkNotModified(currentETag)) {
+            return null;
+        }
+
         ProfileResponse response = profileService.getProfile(authentication);
         ApiResponse<ProfileResponse> apiResponse = ApiResponse.<ProfileResponse>builder()
                 .success(true)
                 .message("Lấy thông tin cá nhân thành công")
                 .data(response)
                 .build();
-        return ResponseEntity.ok(apiResponse);
+        // ETag lấy từ chính dữ liệu trả về; no-cache buộc client hỏi lại bằng If-None-Match mỗi lần
+        return ResponseEntity.ok()
+                .eTag(ProfileService.etag(response.getVersion()))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(apiResponse);
     }
 
     @PatchMapping
@@ -53,4 +67,20 @@ public class ProfileController {
                 .build();
         return ResponseEntity.ok(apiResponse);
     }
+
+    @PostMapping(value = "/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+            summary = "Tải lên ảnh đại diện (PNG, JPEG, GIF), trả về khóa ảnh dùng với /api/avatars/{key}"
+    )
+    public ResponseEntity<ApiResponse<String>> uploadAvatar(
+            Authentication authentication, @RequestPart("file") MultipartFile file
+    ) {
+        String key = profileService.updateAvatar(authentication, file);
+        ApiResponse<String> apiResponse = ApiResponse.<String>builder()
+                .success(true)
+                .message("Cập nhật ảnh đại diện thành công")
+                .data(key)
+                .build();
+        return ResponseEntity.ok(apiResponse);
+    }
 }
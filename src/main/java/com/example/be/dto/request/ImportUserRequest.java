@@ -0,0 +1,26 @@
+package com.example.be.dto.request;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một dòng NDJSON khi nhập người dùng hàng loạt (cùng định dạng với file xuất).
+ */
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ImportUserRequest {
+    String email;
+    String password;
+    String fullName;
+    String avatar;
+    String role;
+    String authProvider;
+    Boolean active;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+}
@@ -0,0 +1,15 @@
+package com.example.be.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class JoinMatchmakingRequest {
+    @NotNull(message = "Mức cược không được để trống")
+    Long stake;
+}
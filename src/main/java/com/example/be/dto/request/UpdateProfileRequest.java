@@ -11,5 +11,4 @@ import lombok.experimental.FieldDefaults;
 public class UpdateProfileRequest {
     String password;
     String fullName;
-    String avatar;
 }
@@ -0,0 +1,19 @@
+package com.example.be.dto.response;
+
+import com.example.be.enums.MatchmakingStatus;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class MatchmakingResponse {
+    MatchmakingStatus status;
+    Long stake;
+    // Số người đứng trước trong hàng chờ (WAITING)
+    Long position;
+    // Id phòng để gửi lệnh join qua /ws/game (MATCHED)
+    String room;
+}
@@ -14,4 +14,5 @@ public class ProfileResponse {
     String fullName;
     String avatar;
     String role;
+    Long version;
 }
@@ -5,6 +5,11 @@ import com.example.be.enums.Role;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDateTime;
 
@@ -13,12 +18,16 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "users")
+@EntityListeners(UserEntityListener.class)
+@NaturalIdCache(region = "users-natural-id")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
 
+    @NaturalId
     @Column(unique = true, nullable = false)
     String email;
 
@@ -44,4 +53,14 @@ public class User {
 
     @Builder.Default
     Boolean active = true;
+
+    // Tăng mỗi lần cập nhật, dùng làm ETag cho /api/profile; dòng cũ và dòng nhập bằng JDBC bắt đầu từ 0
+    @Version
+    @ColumnDefault("0")
+    Long version;
+
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
 }
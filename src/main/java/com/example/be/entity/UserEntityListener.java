@@ -0,0 +1,30 @@
+package com.example.be.entity;
+
+import com.example.be.service.UserCacheSynchronizer;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Báo cho {@link UserCacheSynchronizer} mỗi khi User được ghi xuống DB,
+ * kể cả các lần save rải rác trong AuthService và ProfileService.
+ */
+@Component
+public class UserEntityListener {
+
+    // Lấy trễ: listener được tạo trong lúc dựng EntityManagerFactory mà synchronizer lại phụ thuộc vào nó
+    private final ObjectProvider<UserCacheSynchronizer> userCacheSynchronizer;
+
+    public UserEntityListener(ObjectProvider<UserCacheSynchronizer> userCacheSynchronizer) {
+        this.userCacheSynchronizer = userCacheSynchronizer;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onUserChanged(User user) {
+        userCacheSynchronizer.ifAvailable(synchronizer -> synchronizer.onUserChanged(user));
+    }
+}
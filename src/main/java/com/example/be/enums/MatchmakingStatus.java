@@ -0,0 +1,7 @@
+package com.example.be.enums;
+
+public enum MatchmakingStatus {
+    IDLE,
+    WAITING,
+    MATCHED
+}
@@ -0,0 +1,40 @@
+package com.example.be.exception;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Đếm số BusinessException theo mã trạng thái HTTP.
+ * Counter được giữ trong mảng theo mã trạng thái nên lần đếm sau không tra cứu registry hay tạo tag.
+ */
+@Component
+public class BusinessExceptionMetrics {
+
+    private static final String METRIC = "business.exceptions";
+    private static final int MAX_STATUS = 600;
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicReferenceArray<Counter> counters = new AtomicReferenceArray<>(MAX_STATUS);
+
+    public BusinessExceptionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(BusinessException ex) {
+        int status = ex.getStatusCode();
+        if (status < 0 || status >= MAX_STATUS) {
+            status = 0;
+        }
+
+        Counter counter = counters.get(status);
+        if (counter == null) {
+            // Registry tự trả về cùng một Counter nếu hai luồng tạo cùng lúc
+            counter = meterRegistry.counter(METRIC, "status", String.valueOf(status));
+            counters.set(status, counter);
+        }
+        counter.increment();
+    }
+}
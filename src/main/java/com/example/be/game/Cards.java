@@ -0,0 +1,112 @@
+package com.example.be.game;
+
+/**
+ * Biểu diễn lá bài và bộ bài dạng bitboard: mỗi lá là một bit trong {@code long}, chỉ số = rank * 4 + suit.
+ * Rank 0..12 tương ứng 3, 4, ..., K, A, 2; suit 0..3 tương ứng ♠ ♣ ♦ ♥ (♠ nhỏ nhất).
+ * Nhờ thứ tự này, so sánh hai lá bài chỉ là so sánh chỉ số, lá lớn nhất của một tập là bit cao nhất.
+ */
+public final class Cards {
+
+    public static final int RANKS = 13;
+    public static final int SUITS = 4;
+    public static final int DECK_SIZE = RANKS * SUITS;
+
+    public static final int RANK_TWO = 12;
+
+    /** Toàn bộ 52 lá. */
+    public static final long FULL_DECK = (1L << DECK_SIZE) - 1;
+
+    /** Bốn lá 2 (heo). */
+    public static final long TWOS = 0xFL << (RANK_TWO * SUITS);
+
+    static final String[] RANK_NAMES = {"3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K", "A", "2"};
+    static final String SUIT_NAMES = "♠♣♦♥";
+
+    private Cards() {
+    }
+
+    public static int index(int rank, int suit) {
+        return rank * SUITS + suit;
+    }
+
+    public static int rank(int card) {
+        return card >>> 2;
+    }
+
+    public static int suit(int card) {
+        return card & 3;
+    }
+
+    public static long bit(int card) {
+        return 1L << card;
+    }
+
+    /**
+     * Tất cả các lá cùng rank.
+     */
+    public static long rankMask(int rank) {
+        return 0xFL << (rank * SUITS);
+    }
+
+    /**
+     * Lá lớn nhất trong tập, -1 nếu tập rỗng.
+     */
+    public static int highest(long cards) {
+        return 63 - Long.numberOfLeadingZeros(cards);
+    }
+
+    /**
+     * Lá nhỏ nhất trong tập, 64 nếu tập rỗng.
+     */
+    public static int lowest(long cards) {
+        return Long.numberOfTrailingZeros(cards);
+    }
+
+    public static int count(long cards) {
+        return Long.bitCount(cards);
+    }
+
+    public static boolean containsAll(long hand, long cards) {
+        return (hand & cards) == cards;
+    }
+
+    /**
+     * Đọc danh sách lá bài cách nhau bởi khoảng trắng, ví dụ {@code "3♠ 10♥ A♦"}. Dùng cho test và log, không dùng ở hot path.
+     */
+    public static long parse(String text) {
+        long cards = 0;
+        for (String token : text.trim().split("\\s+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            int suit = SUIT_NAMES.indexOf(token.charAt(token.length() - 1));
+            int rank = rankOf(token.substring(0, token.length() - 1));
+            if (suit < 0 || rank < 0) {
+                throw new IllegalArgumentException("Lá bài không hợp lệ: " + token);
+            }
+            cards |= bit(index(rank, suit));
+        }
+        return cards;
+    }
+
+    public static String toString(long cards) {
+        StringBuilder builder = new StringBuilder();
+        for (long remaining = cards & FULL_DECK; remaining != 0; remaining &= remaining - 1) {
+            int card = Long.numberOfTrailingZeros(remaining);
+            if (!builder.isEmpty()) {
+                builder.append(' ');
+            }
+            builder.append(RANK_NAMES[rank(card)]).append(SUIT_NAMES.charAt(suit(card)));
+        }
+        return builder.toString();
+    }
+
+    private static int rankOf(String name) {
+        for (int rank = 0; rank < RANK_NAMES.length; rank++) {
+            if (RANK_NAMES[rank].equals(name)) {
+                return rank;
+            }
+        }
+        return -1;
+    }
+}
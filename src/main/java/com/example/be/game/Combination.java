@@ -0,0 +1,131 @@
+package com.example.be.game;
+
+/**
+ * Nhận diện bộ bài được đánh ra và so sánh hai bộ, không cấp phát đối tượng.
+ * Một bộ được mã hóa thành {@code int}: {@code type << 12 | length << 6 | highCard}, trong đó length là số rank
+ * (sảnh, đôi thông) và highCard là chỉ số lá lớn nhất. {@link #INVALID} (0) là bộ không hợp lệ.
+ */
+public final class Combination {
+
+    public static final int INVALID = 0;
+
+    public static final int SINGLE = 1;
+    public static final int PAIR = 2;
+    public static final int TRIPLE = 3;
+    public static final int STRAIGHT = 4;
+    /** Đôi thông: từ 3 đôi liên tiếp trở lên. */
+    public static final int PAIR_SEQUENCE = 5;
+    /** Tứ quý. */
+    public static final int FOUR_OF_A_KIND = 6;
+
+    static final int MIN_SEQUENCE = 3;
+
+    // Mỗi rank chiếm 4 bit (một nibble); các hằng số dưới đây thao tác song song trên cả 13 nibble
+    static final long NIBBLE_LOW_BITS = 0x1111_1111_1111_1L;
+    static final long PAIRS_OF_BITS = 0x5555_5555_5555_5L;
+    static final long QUADS_OF_BITS = 0x3333_3333_3333_3L;
+    static final long TWO_NIBBLE = 1L << (Cards.RANK_TWO * Cards.SUITS);
+
+    private Combination() {
+    }
+
+    /**
+     * Nhận diện bộ bài; trả về {@link #INVALID} nếu tập lá không tạo thành bộ hợp lệ.
+     */
+    public static int classify(long cards) {
+        if (cards == 0 || (cards & ~Cards.FULL_DECK) != 0) {
+            return INVALID;
+        }
+        int total = Long.bitCount(cards);
+        int high = Cards.highest(cards);
+        if (total == 1) {
+            return encode(SINGLE, 1, high);
+        }
+
+        // Đếm số lá của từng rank trong nibble tương ứng (popcount SWAR, mỗi nibble tối đa 4)
+        long counts = cards - ((cards >>> 1) & PAIRS_OF_BITS);
+        counts = (counts & QUADS_OF_BITS) + ((counts >>> 2) & QUADS_OF_BITS);
+
+        // Bit thấp của nibble bật khi rank có ít nhất một lá
+        long present = (counts | (counts >>> 1) | (counts >>> 2)) & NIBBLE_LOW_BITS;
+        int ranks = Long.bitCount(present);
+        int perRank = total / ranks;
+        if (perRank * ranks != total || counts != present * perRank) {
+            // Các rank không cùng số lá
+            return INVALID;
+        }
+
+        if (ranks == 1) {
+            return switch (perRank) {
+                case 2 -> encode(PAIR, 1, high);
+                case 3 -> encode(TRIPLE, 1, high);
+                default -> encode(FOUR_OF_A_KIND, 1, high);
+            };
+        }
+
+        if (ranks < MIN_SEQUENCE || (present & TWO_NIBBLE) != 0 || !isConsecutive(present)) {
+            return INVALID;
+        }
+        return switch (perRank) {
+            case 1 -> encode(STRAIGHT, ranks, high);
+            case 2 -> encode(PAIR_SEQUENCE, ranks, high);
+            default -> INVALID;
+        };
+    }
+
+    /**
+     * Bộ {@code play} có chặn được bộ {@code target} đang nằm trên bàn hay không (cả hai phải hợp lệ).
+     * Cùng loại và cùng độ dài thì so lá lớn nhất; ngoài ra là các trường hợp chặt heo, chặt đôi thông, tứ quý.
+     */
+    public static boolean beats(int play, int target) {
+        if (play == INVALID || target == INVALID) {
+            return false;
+        }
+        int playType = type(play);
+        int targetType = type(target);
+        if (playType == targetType && length(play) == length(target)) {
+            return highCard(play) > highCard(target);
+        }
+
+        int playLength = length(play);
+        boolean targetIsTwo = Cards.rank(highCard(target)) == Cards.RANK_TWO;
+        return switch (targetType) {
+            // Một heo: chặt bằng 3 đôi thông trở lên hoặc tứ quý
+            case SINGLE -> targetIsTwo && (playType == FOUR_OF_A_KIND || playType == PAIR_SEQUENCE);
+            // Đôi heo: chặt bằng tứ quý hoặc 4 đôi thông trở lên
+            case PAIR -> targetIsTwo && (playType == FOUR_OF_A_KIND || (playType == PAIR_SEQUENCE && playLength >= 4));
+            // 3 đôi thông bị tứ quý chặt; đôi thông dài hơn chặt đôi thông ngắn hơn (từ 4 đôi)
+            case PAIR_SEQUENCE -> (playType == FOUR_OF_A_KIND && length(target) == MIN_SEQUENCE)
+                    || (playType == PAIR_SEQUENCE && playLength > length(target) && playLength >= 4);
+            // Tứ quý bị 4 đôi thông trở lên chặt
+            case FOUR_OF_A_KIND -> playType == PAIR_SEQUENCE && playLength >= 4;
+            default -> false;
+        };
+    }
+
+    public static int type(int combination) {
+        return combination >>> 12;
+    }
+
+    public static int length(int combination) {
+        return (combination >>> 6) & 0x3F;
+    }
+
+    public static int highCard(int combination) {
+        return combination & 0x3F;
+    }
+
+    static int encode(int type, int length, int highCard) {
+        return type << 12 | length << 6 | highCard;
+    }
+
+    /**
+     * Các rank có mặt (bit thấp của từng nibble) tạo thành một dãy liên tiếp.
+     */
+    private static boolean isConsecutive(long present) {
+        long shifted = present >>> Long.numberOfTrailingZeros(present);
+        // Dãy k nibble liên tiếp: 0x1, 0x11, 0x111, ... → nhân 15 thành 0xF, 0xFF, 0xFFF, ... (toàn bit 1)
+        long filled = shifted * 0xF;
+        return (filled & (filled + 1)) == 0;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.be.game;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Xáo và chia bộ 52 lá cho 4 người, mỗi người 13 lá, kết quả là bitboard của từng tay bài.
+ */
+public final class Deck {
+
+    public static final int PLAYERS = 4;
+    public static final int HAND_SIZE = Cards.DECK_SIZE / PLAYERS;
+
+    private Deck() {
+    }
+
+    /**
+     * Chia bài vào {@code hands} (độ dài tối thiểu {@link #PLAYERS}).
+     */
+    public static void deal(RandomGenerator random, long[] hands) {
+        int[] cards = new int[Cards.DECK_SIZE];
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = i;
+        }
+        // Fisher–Yates
+        for (int i = cards.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int card = cards[i];
+            cards[i] = cards[j];
+            cards[j] = card;
+        }
+
+        for (int player = 0; player < PLAYERS; player++) {
+            long hand = 0;
+            for (int i = player * HAND_SIZE; i < (player + 1) * HAND_SIZE; i++) {
+                hand |= Cards.bit(cards[i]);
+            }
+            hands[player] = hand;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.be.game;
+
+/**
+ * Liệt kê mọi nước đi hợp lệ từ một tay bài so với bộ đang nằm trên bàn, ghi thẳng bitboard của từng nước
+ * vào mảng {@code long[]} do caller cấp sẵn (tái sử dụng được), không tạo List hay đối tượng boxed.
+ * Dùng cho tự đánh khi hết giờ và cho bot.
+ */
+public final class MoveGenerator {
+
+    /** Dư cho tay 13 lá: tay nhiều nước nhất tìm được (các rank 10-K, mỗi rank 3-4 lá) có khoảng 490 nước. */
+    public static final int MAX_MOVES = 1024;
+
+    static final int RANK_ACE = Cards.RANK_TWO - 1;
+    static final int MIN_SEQUENCE = Combination.MIN_SEQUENCE;
+
+    // SUBSETS[nibble][k]: các tập con k lá của một rank có tập chất = nibble (tính sẵn cho 16 × 5 trường hợp)
+    static final int[][][] SUBSETS = new int[16][5][];
+
+    static {
+        for (int nibble = 0; nibble < 16; nibble++) {
+            int[] sizes = new int[5];
+            for (int subset = 1; subset < 16; subset++) {
+                if ((subset & ~nibble) == 0) {
+                    sizes[Integer.bitCount(subset)]++;
+                }
+            }
+            for (int k = 0; k < 5; k++) {
+                SUBSETS[nibble][k] = new int[sizes[k]];
+                sizes[k] = 0;
+            }
+            for (int subset = 1; subset < 16; subset++) {
+                if ((subset & ~nibble) == 0) {
+                    int k = Integer.bitCount(subset);
+                    SUBSETS[nibble][k][sizes[k]++] = subset;
+                }
+            }
+        }
+    }
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Ghi các nước đi vào {@code out} và trả về số nước. {@code target} là bộ trên bàn ({@link Combination#classify}),
+     * {@link Combination#INVALID} nghĩa là được đánh tự do. Dừng khi {@code out} đầy.
+     */
+    public static int generate(long hand, int target, long[] out) {
+        hand &= Cards.FULL_DECK;
+        if (target == Combination.INVALID) {
+            int count = sets(hand, 1, -1, out, 0);
+            count = sets(hand, 2, -1, out, count);
+            count = sets(hand, 3, -1, out, count);
+            count = sets(hand, 4, -1, out, count);
+            count = sequences(hand, 1, MIN_SEQUENCE, RANK_ACE + 1, -1, out, count);
+            return sequences(hand, 2, MIN_SEQUENCE, RANK_ACE + 1, -1, out, count);
+        }
+
+        int high = Combination.highCard(target);
+        int length = Combination.length(target);
+        boolean two = Cards.rank(high) == Cards.RANK_TWO;
+        return switch (Combination.type(target)) {
+            case Combination.SINGLE -> {
+                int count = sets(hand, 1, high, out, 0);
+                if (two) {
+                    count = sets(hand, 4, -1, out, count);
+                    count = sequences(hand, 2, MIN_SEQUENCE, RANK_ACE + 1, -1, out, count);
+                }
+                yield count;
+            }
+            case Combination.PAIR -> {
+                int count = sets(hand, 2, high, out, 0);
+                if (two) {
+                    count = sets(hand, 4, -1, out, count);
+                    count = sequences(hand, 2, 4, RANK_ACE + 1, -1, out, count);
+                }
+                yield count;
+            }
+            case Combination.TRIPLE -> sets(hand, 3, high, out, 0);
+            case Combination.STRAIGHT -> sequences(hand, 1, length, length, high, out, 0);
+            case Combination.PAIR_SEQUENCE -> {
+                int count = sequences(hand, 2, length, length, high, out, 0);
+                if (length == MIN_SEQUENCE) {
+                    count = sets(hand, 4, -1, out, count);
+                }
+                yield sequences(hand, 2, Math.max(4, length + 1), RANK_ACE + 1, -1, out, count);
+            }
+            case Combination.FOUR_OF_A_KIND -> {
+                int count = sets(hand, 4, high, out, 0);
+                yield sequences(hand, 2, 4, RANK_ACE + 1, -1, out, count);
+            }
+            default -> 0;
+        };
+    }
+
+    /**
+     * Các bộ {@code size} lá cùng rank có lá lớn nhất vượt {@code minHigh}.
+     */
+    private static int sets(long hand, int size, int minHigh, long[] out, int count) {
+        int firstRank = Math.max(0, Cards.rank(minHigh + 1));
+        for (int rank = firstRank; rank < Cards.RANKS; rank++) {
+            int shift = rank * Cards.SUITS;
+            int nibble = (int) (hand >>> shift) & 0xF;
+            for (int subset : SUBSETS[nibble][size]) {
+                long move = (long) subset << shift;
+                if (Cards.highest(move) > minHigh) {
+                    if (count == out.length) {
+                        return count;
+                    }
+                    out[count++] = move;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sảnh ({@code width} = 1) hoặc đôi thông ({@code width} = 2) dài từ {@code minLength} tới {@code maxLength} rank,
+     * không chứa heo, có lá lớn nhất vượt {@code minHigh}.
+     */
+    private static int sequences(long hand, int width, int minLength, int maxLength, int minHigh, long[] out, int count) {
+        for (int start = 0; start + minLength - 1 <= RANK_ACE; start++) {
+            count = extend(hand, width, start, 0, 0, minLength, maxLength, minHigh, out, count);
+            if (count == out.length) {
+                return count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Đệ quy theo từng rank của dãy (sâu tối đa 12 tầng, chỉ dùng stack), chọn {@code width} lá ở mỗi rank.
+     */
+    private static int extend(long hand, int width, int rank, long prefix, int length,
+                              int minLength, int maxLength, int minHigh, long[] out, int count) {
+        int shift = rank * Cards.SUITS;
+        int nibble = (int) (hand >>> shift) & 0xF;
+        for (int subset : SUBSETS[nibble][width]) {
+            long move = prefix | ((long) subset << shift);
+            int newLength = length + 1;
+            if (newLength >= minLength && Cards.highest(move) > minHigh) {
+                if (count == out.length) {
+                    return count;
+                }
+                out[count++] = move;
+            }
+            if (newLength < maxLength && rank < RANK_ACE) {
+                count = extend(hand, width, rank + 1, move, newLength, minLength, maxLength, minHigh, out, count);
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,567 @@
+package com.example.be.game.journal;
+
+import com.example.be.game.Combination;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Nhật ký sự kiện của các ván đang chơi (chia bài, đánh, bỏ lượt, chặt, thắng), đủ để dựng lại mọi bàn khi node
+ * khởi động lại mà không phải ghi trạng thái xuống MySQL sau mỗi nước.
+ * <p>
+ * Bản ghi được nối vào segment file ánh xạ bộ nhớ ({@link MappedByteBuffer}): ghi một nước chỉ là chép vài chục byte
+ * vào page cache, không có system call, nên vẫn còn nguyên khi tiến trình chết. Luồng nền gom mọi bản ghi mới và
+ * {@code force()} một lần mỗi {@code flush-interval-ms} (group commit) để chịu được cả khi máy mất điện; tối đa
+ * mất bấy nhiêu mili giây cuối.
+ * <p>
+ * Mỗi ván có một mốc đầy đủ (bản ghi chia bài hoặc snapshot) và các nước đi sau mốc đó. Phòng tự ghi snapshot sau
+ * mỗi {@code snapshot-every} bản ghi; luồng nền xóa (hoặc chuyển vào {@code archive/}) các segment nằm trước mốc cũ
+ * nhất còn dùng, và yêu cầu phòng nào đang giữ segment cũ ghi snapshot mới.
+ * <p>
+ * Định dạng segment: {@code magic:4 version:1} rồi các bản ghi {@code length:2 crc32c:4 payload}, trong đó
+ * payload là {@code type:1 room(len:1 + utf8) body}. Phần chưa ghi của file toàn số 0; khi đọc lại thì dừng ở
+ * bản ghi đầu tiên có độ dài 0 hoặc sai CRC (ghi dở lúc sập máy).
+ */
+@Slf4j
+@Component
+public class GameJournal {
+
+    public static final byte DEAL = 1;
+    public static final byte PLAY = 2;
+    public static final byte PASS = 3;
+    /** Nước đánh chặt heo, đôi thông hoặc tứ quý; khi đọc lại xử lý như {@link #PLAY}. */
+    public static final byte CHOP = 4;
+    public static final byte WIN = 5;
+    /** Ván dừng giữa chừng vì có người rời phòng. */
+    public static final byte ABORT = 6;
+    public static final byte SNAPSHOT = 7;
+
+    static final int MAGIC = 0x544C4D4A; // "TLMJ"
+    static final byte VERSION = 1;
+    static final int SEGMENT_HEADER = 5;
+    static final int ENTRY_HEADER = 6;
+    // Snapshot lớn nhất: id phòng và 4 email, mỗi chuỗi tối đa 255 byte
+    static final int MAX_ENTRY = ENTRY_HEADER + 2048;
+    static final int CARDS = 7;
+    static final int LEAD_FLAG = 0x80;
+    static final int SEATS = 4;
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    final boolean enabled;
+    final Path dir;
+    final Path archiveDir;
+    final int segmentSize;
+    final int snapshotEvery;
+    final ScheduledExecutorService background;
+    // Phòng đang chơi → số thứ tự segment chứa mốc (chia bài/snapshot) gần nhất của phòng
+    final ConcurrentMap<String, Long> baselines = new ConcurrentHashMap<>();
+    // Các segment đã đóng, cũ nhất ở đầu; chỉ luồng nền thêm/bớt
+    final Deque<Path> sealed = new ConcurrentLinkedDeque<>();
+    final ThreadLocal<ByteBuffer> scratch = ThreadLocal.withInitial(() -> ByteBuffer.allocate(MAX_ENTRY));
+    final ThreadLocal<CRC32C> checksums = ThreadLocal.withInitial(CRC32C::new);
+    volatile Consumer<String> snapshotRequester = room -> {
+    };
+    Map<String, RoomSnapshot> recovered;
+    // Segment đang ghi; đổi segment và ghi bản ghi đều giữ khóa của journal
+    Segment current;
+    long nextIndex;
+
+    final Timer appendTimer;
+    final Timer flushTimer;
+    final Counter retiredCounter;
+
+    public GameJournal(
+            MeterRegistry meterRegistry,
+            @Value("${game.journal.enabled}") boolean enabled,
+            @Value("${game.journal.dir}") String dir,
+            @Value("${game.journal.segment-size}") DataSize segmentSize,
+            @Value("${game.journal.flush-interval-ms}") long flushIntervalMs,
+            @Value("${game.journal.snapshot-every}") int snapshotEvery,
+            @Value("${game.journal.compact-interval-ms}") long compactIntervalMs,
+            @Value("${game.journal.archive}") boolean archive) throws IOException {
+        if (segmentSize.toBytes() < 4 * MAX_ENTRY || segmentSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("game.journal.segment-size quá nhỏ hoặc vượt quá 2GB");
+        }
+        this.enabled = enabled;
+        this.dir = Path.of(dir).toAbsolutePath().normalize();
+        this.archiveDir = archive ? this.dir.resolve("archive") : null;
+        this.segmentSize = (int) segmentSize.toBytes();
+        this.snapshotEvery = Math.max(snapshotEvery, 1);
+
+        this.appendTimer = meterRegistry.timer("game.journal.append.latency");
+        this.flushTimer = meterRegistry.timer("game.journal.flush.latency");
+        this.retiredCounter = meterRegistry.counter("game.journal.segments.retired");
+        Gauge.builder("game.journal.rooms", baselines, Map::size)
+                .register(meterRegistry);
+        Gauge.builder("game.journal.segments", sealed, segments -> segments.size() + 1)
+                .register(meterRegistry);
+
+        if (!enabled) {
+            this.recovered = Map.of();
+            this.background = null;
+            return;
+        }
+        Files.createDirectories(this.dir);
+        this.recovered = replay();
+        // Luôn ghi tiếp vào segment mới, không nối sau đuôi có thể đang ghi dở của segment cũ
+        this.current = openSegment(nextIndex++);
+
+        this.background = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "game-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        background.scheduleWithFixedDelay(() -> runQuietly(this::flush), flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        background.scheduleWithFixedDelay(() -> runQuietly(this::compact), compactIntervalMs, compactIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        background.shutdown();
+        background.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    /**
+     * Các ván đọc lại được từ journal lúc khởi động, theo id phòng. Chỉ lần gọi đầu tiên trả về dữ liệu.
+     */
+    public synchronized Map<String, RoomSnapshot> recover() {
+        Map<String, RoomSnapshot> result = recovered;
+        recovered = Map.of();
+        return result;
+    }
+
+    /**
+     * Đăng ký hàm yêu cầu một phòng ghi snapshot (được gọi trên luồng nền của journal, không được chặn).
+     */
+    public void onSnapshotRequest(Consumer<String> requester) {
+        this.snapshotRequester = requester;
+    }
+
+    /**
+     * Số bản ghi tối đa giữa hai snapshot của một phòng.
+     */
+    public int snapshotEvery() {
+        return snapshotEvery;
+    }
+
+    public void deal(String room, RoomSnapshot snapshot) {
+        append(DEAL, room, buffer -> putSnapshot(buffer, snapshot));
+    }
+
+    public void play(String room, int seat, long cards, boolean chop, int turn, boolean lead) {
+        append(chop ? CHOP : PLAY, room, buffer -> putCards(buffer.put((byte) seat), cards).put(turn(turn, lead)));
+    }
+
+    public void pass(String room, int seat, int turn, boolean lead) {
+        append(PASS, room, buffer -> buffer.put((byte) seat).put(turn(turn, lead)));
+    }
+
+    public void win(String room, int seat) {
+        append(WIN, room, buffer -> buffer.put((byte) seat));
+    }
+
+    public void abort(String room) {
+        append(ABORT, room, buffer -> {
+        });
+    }
+
+    public void snapshot(String room, RoomSnapshot snapshot) {
+        append(SNAPSHOT, room, buffer -> putSnapshot(buffer, snapshot));
+    }
+
+    /**
+     * Mã hóa bản ghi vào bộ đệm riêng của luồng, rồi chỉ giữ khóa trong lúc chép vào segment.
+     * Lỗi ghi journal được log lại chứ không làm hỏng ván đang chơi.
+     */
+    private void append(byte type, String room, Consumer<ByteBuffer> body) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        ByteBuffer buffer = scratch.get().clear().position(ENTRY_HEADER);
+        try {
+            putUtf8(buffer.put(type), room);
+            body.accept(buffer);
+        } catch (IllegalArgumentException | BufferOverflowException e) {
+            log.warn("Bỏ qua bản ghi journal của phòng {}: {}", room, e.getMessage());
+            return;
+        }
+        int length = buffer.position() - ENTRY_HEADER;
+        CRC32C checksum = checksums.get();
+        checksum.reset();
+        checksum.update(buffer.array(), ENTRY_HEADER, length);
+        buffer.putShort(0, (short) length).putInt(2, (int) checksum.getValue());
+
+        try {
+            write(type, room, buffer.array(), buffer.position());
+        } catch (UncheckedIOException e) {
+            log.error("Không thể ghi journal của phòng {}", room, e);
+            return;
+        }
+        appendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Mốc của phòng được cập nhật trong cùng khóa với lúc ghi, để {@link #compact()} không thể thấy segment chứa
+     * bản ghi chia bài/snapshot đã đóng mà mốc chưa được đăng ký.
+     */
+    private synchronized void write(byte type, String room, byte[] entry, int length) {
+        if (current.position + length > segmentSize) {
+            Segment full = current;
+            current = openSegment(nextIndex++);
+            background.execute(() -> runQuietly(() -> seal(full)));
+        }
+        current.buffer.put(current.position, entry, 0, length);
+        current.position += length;
+        switch (type) {
+            case DEAL, SNAPSHOT -> baselines.put(room, current.index);
+            case WIN, ABORT -> baselines.remove(room);
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Group commit: một lần {@code force()} cho mọi bản ghi từ lần trước.
+     */
+    void flush() {
+        Segment segment;
+        int position;
+        synchronized (this) {
+            segment = current;
+            position = segment.position;
+        }
+        segment.force(position, flushTimer);
+    }
+
+    private void seal(Segment segment) throws IOException {
+        segment.force(segment.position, flushTimer);
+        segment.channel.close();
+        sealed.addLast(segment.path);
+    }
+
+    /**
+     * Dọn các segment nằm trước mốc cũ nhất của các ván đang chơi; phòng nào còn giữ mốc ở segment đã đóng thì được
+     * yêu cầu ghi snapshot mới để lần dọn sau giải phóng được segment đó.
+     */
+    void compact() throws IOException {
+        long currentIndex;
+        long floor;
+        synchronized (this) {
+            currentIndex = current.index;
+            floor = baselines.values().stream().mapToLong(Long::longValue).min().orElse(currentIndex);
+        }
+        Path oldest;
+        while ((oldest = sealed.peekFirst()) != null && index(oldest) < floor) {
+            sealed.pollFirst();
+            if (archiveDir != null) {
+                Files.createDirectories(archiveDir);
+                Files.move(oldest, archiveDir.resolve(oldest.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.deleteIfExists(oldest);
+            }
+            retiredCounter.increment();
+        }
+        Consumer<String> requester = snapshotRequester;
+        baselines.forEach((room, index) -> {
+            if (index < currentIndex) {
+                requester.accept(room);
+            }
+        });
+    }
+
+    private Segment openSegment(long index) {
+        Path path = dir.resolve(String.format("%020d%s", index, SEGMENT_SUFFIX));
+        try {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // Ánh xạ cả segment ngay từ đầu: file thưa, chỉ chiếm đĩa khi trang được ghi
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            buffer.putInt(0, MAGIC).put(4, VERSION);
+            return new Segment(index, path, channel, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Đọc lại mọi segment theo thứ tự; ván nào kết thúc (thắng hoặc dừng) thì bỏ, còn lại là các ván cần khôi phục.
+     */
+    private Map<String, RoomSnapshot> replay() throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(dir)) {
+            segments = files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        long start = System.nanoTime();
+        Map<String, Table> tables = new HashMap<>();
+        long entries = 0;
+        for (Path path : segments) {
+            entries += replay(path, index(path), tables);
+            sealed.addLast(path);
+        }
+        nextIndex = segments.isEmpty() ? 0 : index(segments.getLast()) + 1;
+
+        Map<String, RoomSnapshot> result = new HashMap<>();
+        tables.forEach((room, table) -> {
+            result.put(room, table.snapshot());
+            // Giữ segment chứa mốc cho tới khi phòng được khôi phục và ghi snapshot mới
+            baselines.put(room, table.baseline);
+        });
+        if (!segments.isEmpty()) {
+            log.info("Đọc lại {} bản ghi từ {} segment trong {} ms, khôi phục {} bàn", entries, segments.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), result.size());
+        }
+        return result;
+    }
+
+    private long replay(Path path, long index, Map<String, Table> tables) throws IOException {
+        long entries = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < SEGMENT_HEADER || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                log.warn("Bỏ qua segment không hợp lệ {}", path);
+                return 0;
+            }
+            CRC32C checksum = new CRC32C();
+            while (buffer.remaining() >= ENTRY_HEADER) {
+                int position = buffer.position();
+                int length = Short.toUnsignedInt(buffer.getShort(position));
+                if (length == 0) {
+                    break;
+                }
+                if (length > buffer.remaining() - ENTRY_HEADER) {
+                    log.warn("Bản ghi bị cắt cụt tại {}:{}", path, position);
+                    break;
+                }
+                ByteBuffer payload = buffer.slice(position + ENTRY_HEADER, length);
+                checksum.reset();
+                checksum.update(payload.duplicate());
+                if ((int) checksum.getValue() != buffer.getInt(position + 2)) {
+                    log.warn("Sai CRC tại {}:{}, bỏ qua phần còn lại của segment", path, position);
+                    break;
+                }
+                try {
+                    apply(payload, index, tables);
+                } catch (IllegalArgumentException | BufferUnderflowException e) {
+                    log.warn("Bản ghi không hợp lệ tại {}:{}", path, position, e);
+                    break;
+                }
+                buffer.position(position + ENTRY_HEADER + length);
+                entries++;
+            }
+        }
+        return entries;
+    }
+
+    private static void apply(ByteBuffer payload, long index, Map<String, Table> tables) {
+        byte type = payload.get();
+        String room = getUtf8(payload);
+        switch (type) {
+            case DEAL, SNAPSHOT -> tables.put(room, new Table(getSnapshot(payload), index));
+            case PLAY, CHOP -> {
+                Table table = tables.get(room);
+                if (table != null) {
+                    table.play(payload.get(), getCards(payload), Byte.toUnsignedInt(payload.get()));
+                }
+            }
+            case PASS -> {
+                Table table = tables.get(room);
+                if (table != null) {
+                    table.pass(payload.get(), Byte.toUnsignedInt(payload.get()));
+                }
+            }
+            case WIN, ABORT -> tables.remove(room);
+            default -> throw new IllegalArgumentException("Loại bản ghi không hợp lệ: " + type);
+        }
+    }
+
+    private static void putSnapshot(ByteBuffer buffer, RoomSnapshot snapshot) {
+        for (String email : snapshot.emails()) {
+            putUtf8(buffer, email);
+        }
+        for (long hand : snapshot.hands()) {
+            putCards(buffer, hand);
+        }
+        buffer.put((byte) snapshot.turn())
+                .put((byte) snapshot.lastPlayer())
+                .put((byte) snapshot.passedMask())
+                .putShort((short) snapshot.trick())
+                .put((byte) (snapshot.firstPlay() ? 1 : 0));
+    }
+
+    private static RoomSnapshot getSnapshot(ByteBuffer buffer) {
+        String[] emails = new String[SEATS];
+        for (int seat = 0; seat < SEATS; seat++) {
+            emails[seat] = getUtf8(buffer);
+        }
+        long[] hands = new long[SEATS];
+        for (int seat = 0; seat < SEATS; seat++) {
+            hands[seat] = getCards(buffer);
+        }
+        return new RoomSnapshot(emails, hands, buffer.get(), buffer.get(), buffer.get(),
+                Short.toUnsignedInt(buffer.getShort()), buffer.get() != 0);
+    }
+
+    private static ByteBuffer putCards(ByteBuffer buffer, long cards) {
+        return buffer.put((byte) (cards >>> 48)).putShort((short) (cards >>> 32)).putInt((int) cards);
+    }
+
+    private static long getCards(ByteBuffer buffer) {
+        long high = Byte.toUnsignedLong(buffer.get()) << 48;
+        long middle = Short.toUnsignedLong(buffer.getShort()) << 32;
+        return high | middle | Integer.toUnsignedLong(buffer.getInt());
+    }
+
+    private static byte turn(int seat, boolean lead) {
+        return (byte) (lead ? seat | LEAD_FLAG : seat);
+    }
+
+    private static void putUtf8(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFF) {
+            throw new IllegalArgumentException("Chuỗi quá dài");
+        }
+        buffer.put((byte) bytes.length).put(bytes);
+    }
+
+    private static String getUtf8(ByteBuffer buffer) {
+        byte[] bytes = new byte[Byte.toUnsignedInt(buffer.get())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long index(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static void runQuietly(IoTask task) {
+        try {
+            task.run();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Tác vụ nền của journal thất bại", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IoTask {
+        void run() throws IOException;
+    }
+
+    static final class Segment {
+
+        final long index;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        // Vị trí ghi tiếp theo, chỉ đọc/ghi khi giữ khóa của journal
+        int position = SEGMENT_HEADER;
+        // Đã force() tới đâu, chỉ luồng nền dùng
+        int flushed;
+
+        Segment(long index, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.index = index;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        void force(int position, Timer timer) {
+            if (position > flushed) {
+                long start = System.nanoTime();
+                buffer.force(flushed, position - flushed);
+                flushed = position;
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Trạng thái một bàn trong lúc đọc lại: áp lần lượt các nước đi lên mốc gần nhất.
+     */
+    private static final class Table {
+
+        final String[] emails;
+        final long[] hands;
+        final long baseline;
+        int turn;
+        int lastPlayer;
+        int passedMask;
+        int trick;
+        boolean firstPlay;
+
+        Table(RoomSnapshot snapshot, long baseline) {
+            this.emails = snapshot.emails();
+            this.hands = snapshot.hands();
+            this.baseline = baseline;
+            this.turn = snapshot.turn();
+            this.lastPlayer = snapshot.lastPlayer();
+            this.passedMask = snapshot.passedMask();
+            this.trick = snapshot.trick();
+            this.firstPlay = snapshot.firstPlay();
+        }
+
+        void play(int seat, long cards, int next) {
+            hands[seat] &= ~cards;
+            trick = Combination.classify(cards);
+            lastPlayer = seat;
+            firstPlay = false;
+            advance(next);
+        }
+
+        void pass(int seat, int next) {
+            passedMask |= 1 << seat;
+            advance(next);
+        }
+
+        private void advance(int next) {
+            turn = next & ~LEAD_FLAG;
+            if ((next & LEAD_FLAG) != 0) {
+                trick = Combination.INVALID;
+                passedMask = 0;
+            }
+        }
+
+        RoomSnapshot snapshot() {
+            return new RoomSnapshot(emails, hands, turn, lastPlayer, passedMask, trick, firstPlay);
+        }
+    }
+}
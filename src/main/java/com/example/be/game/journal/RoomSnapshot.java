@@ -0,0 +1,17 @@
+package com.example.be.game.journal;
+
+/**
+ * Trạng thái đầy đủ của một ván đang chơi, đủ để dựng lại bàn sau khi node khởi động lại.
+ * Mảng được sao chép khi tạo snapshot nên không chia sẻ với actor.
+ *
+ * @param emails     email người ngồi ở từng ghế
+ * @param hands      bài trên tay từng ghế (bitboard)
+ * @param turn       ghế đang tới lượt
+ * @param lastPlayer ghế đánh bộ đang nằm trên bàn
+ * @param passedMask bit thứ i bật khi ghế i đã bỏ lượt trong vòng này
+ * @param trick      bộ đang nằm trên bàn ({@code Combination.INVALID} khi được đánh tự do)
+ * @param firstPlay  chưa có nước đầu tiên của ván (nước đó phải có 3♠)
+ */
+public record RoomSnapshot(String[] emails, long[] hands, int turn, int lastPlayer, int passedMask, int trick,
+                           boolean firstPlay) {
+}
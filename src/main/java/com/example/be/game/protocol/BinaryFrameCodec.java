@@ -0,0 +1,235 @@
+package com.example.be.game.protocol;
+
+import com.example.be.game.room.RoomEvent;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Định dạng frame nhị phân của kênh realtime (subprotocol {@value #SUBPROTOCOL}), thay cho JSON trên mạng di động.
+ * Mọi frame bắt đầu bằng [phiên bản:1][loại:1], số nguyên big-endian, bài là bitboard 52 bit ghi gọn trong 7 byte.
+ * Id phòng không được ghi lại trong sự kiện (mỗi kết nối chỉ ngồi một phòng), khi giải mã {@code room} là null.
+ * <pre>
+ * Server → client
+ *   joined(1), left(2)  [seat:1][độ dài email:1][email UTF-8]
+ *   dealt(3)            [seat:1][cards:7]
+ *   turn(4)             [lượt:1]
+ *   played(5)           [seat:1][cards:7][combination:2][remaining:1][lượt:1]
+ *   passed(6)           [seat:1][lượt:1]
+ *   finished(7)         [seat:1]
+ *   error(8)            [độ dài:2][message UTF-8]
+ *   sync(9)             [seat đánh cuối:1][combination:2][remaining seat 0..3:4][lượt:1]
+ * Client → server
+ *   join(1)             [độ dài:1][room UTF-8]
+ *   leave(2), pass(4)
+ *   play(3)             [cards:7]
+ * </pre>
+ * Byte "lượt" = seat tới lượt, bit 0x80 bật nếu được đánh tự do; 0xFF nếu không còn lượt (ván kết thúc).
+ */
+public final class BinaryFrameCodec {
+
+    public static final String SUBPROTOCOL = "tlmn.bin.v1";
+
+    static final byte VERSION = 1;
+
+    static final byte JOINED = 1;
+    static final byte LEFT = 2;
+    static final byte DEALT = 3;
+    static final byte TURN = 4;
+    static final byte PLAYED = 5;
+    static final byte PASSED = 6;
+    static final byte FINISHED = 7;
+    static final byte ERROR = 8;
+    static final byte SYNC = 9;
+
+    static final byte JOIN = 1;
+    static final byte LEAVE = 2;
+    static final byte PLAY = 3;
+    static final byte PASS = 4;
+
+    static final int HEADER = 2;
+    static final int CARDS = 7;
+    static final int SEATS = 4;
+    static final int LEAD_FLAG = 0x80;
+    static final int NO_TURN = 0xFF;
+
+    private BinaryFrameCodec() {
+    }
+
+    public static byte[] encode(RoomEvent event) {
+        return switch (event.type()) {
+            case RoomEvent.JOINED, RoomEvent.LEFT -> {
+                byte[] email = utf8(event.email(), 0xFF);
+                yield header(event.type().equals(RoomEvent.JOINED) ? JOINED : LEFT, 2 + email.length)
+                        .put(event.seat().byteValue())
+                        .put((byte) email.length)
+                        .put(email)
+                        .array();
+            }
+            case RoomEvent.DEALT -> putCards(header(DEALT, 1 + CARDS).put(event.seat().byteValue()), event.cards()).array();
+            case RoomEvent.TURN -> header(TURN, 1).put(turn(event.seat(), event.lead())).array();
+            case RoomEvent.PLAYED -> putCards(header(PLAYED, 1 + CARDS + 4).put(event.seat().byteValue()), event.cards())
+                    .putShort(event.combination().shortValue())
+                    .put(event.remaining().byteValue())
+                    .put(turn(event.turn(), event.lead()))
+                    .array();
+            case RoomEvent.PASSED -> header(PASSED, 2)
+                    .put(event.seat().byteValue())
+                    .put(turn(event.turn(), event.lead()))
+                    .array();
+            case RoomEvent.FINISHED -> header(FINISHED, 1).put(event.seat().byteValue()).array();
+            case RoomEvent.ERROR -> {
+                byte[] message = utf8(event.message(), 0xFFFF);
+                yield header(ERROR, 2 + message.length)
+                        .putShort((short) message.length)
+                        .put(message)
+                        .array();
+            }
+            case RoomEvent.SYNC -> {
+                ByteBuffer buffer = header(SYNC, 1 + 2 + SEATS + 1)
+                        .put(event.seat().byteValue())
+                        .putShort(event.combination().shortValue());
+                for (int count : event.counts()) {
+                    buffer.put((byte) count);
+                }
+                yield buffer.put(turn(event.turn(), event.lead())).array();
+            }
+            default -> throw new IllegalArgumentException("Loại sự kiện không hỗ trợ: " + event.type());
+        };
+    }
+
+    public static RoomEvent decodeEvent(ByteBuffer buffer) {
+        try {
+            byte type = readHeader(buffer);
+            return switch (type) {
+                case JOINED, LEFT -> {
+                    int seat = Byte.toUnsignedInt(buffer.get());
+                    String email = readUtf8(buffer, Byte.toUnsignedInt(buffer.get()));
+                    yield new RoomEvent(type == JOINED ? RoomEvent.JOINED : RoomEvent.LEFT,
+                            null, seat, email, null, null, null, null, null, null, null);
+                }
+                case DEALT -> new RoomEvent(RoomEvent.DEALT, null, Byte.toUnsignedInt(buffer.get()), null,
+                        getCards(buffer), null, null, null, null, null, null);
+                case TURN -> {
+                    int turn = Byte.toUnsignedInt(buffer.get());
+                    yield new RoomEvent(RoomEvent.TURN, null, turn & ~LEAD_FLAG, null, null, null, null, null,
+                            (turn & LEAD_FLAG) != 0, null, null);
+                }
+                case PLAYED -> {
+                    int seat = Byte.toUnsignedInt(buffer.get());
+                    long cards = getCards(buffer);
+                    int combination = Short.toUnsignedInt(buffer.getShort());
+                    int remaining = Byte.toUnsignedInt(buffer.get());
+                    int turn = Byte.toUnsignedInt(buffer.get());
+                    yield new RoomEvent(RoomEvent.PLAYED, null, seat, null, cards, combination, remaining,
+                            turnSeat(turn), turnLead(turn), null, null);
+                }
+                case PASSED -> {
+                    int seat = Byte.toUnsignedInt(buffer.get());
+                    int turn = Byte.toUnsignedInt(buffer.get());
+                    yield new RoomEvent(RoomEvent.PASSED, null, seat, null, null, null, null,
+                            turnSeat(turn), turnLead(turn), null, null);
+                }
+                case FINISHED -> new RoomEvent(RoomEvent.FINISHED, null, Byte.toUnsignedInt(buffer.get()), null,
+                        null, null, null, null, null, null, null);
+                case ERROR -> RoomEvent.error(null, readUtf8(buffer, Short.toUnsignedInt(buffer.getShort())));
+                case SYNC -> {
+                    int lastPlayer = Byte.toUnsignedInt(buffer.get());
+                    int combination = Short.toUnsignedInt(buffer.getShort());
+                    List<Integer> counts = new ArrayList<>(SEATS);
+                    for (int seat = 0; seat < SEATS; seat++) {
+                        counts.add(Byte.toUnsignedInt(buffer.get()));
+                    }
+                    int turn = Byte.toUnsignedInt(buffer.get());
+                    yield new RoomEvent(RoomEvent.SYNC, null, lastPlayer, null, null, combination, null,
+                            turnSeat(turn), turnLead(turn), null, counts);
+                }
+                default -> throw new IllegalArgumentException("Loại sự kiện không hỗ trợ: " + type);
+            };
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Frame bị cắt cụt", e);
+        }
+    }
+
+    public static byte[] encodeRequest(GameRequest request) {
+        return switch (request.type()) {
+            case GameRequest.JOIN -> {
+                byte[] room = utf8(request.room(), 0xFF);
+                yield header(JOIN, 1 + room.length).put((byte) room.length).put(room).array();
+            }
+            case GameRequest.LEAVE -> header(LEAVE, 0).array();
+            case GameRequest.PLAY -> putCards(header(PLAY, CARDS), request.cards()).array();
+            case GameRequest.PASS -> header(PASS, 0).array();
+            default -> throw new IllegalArgumentException("Loại message không hỗ trợ: " + request.type());
+        };
+    }
+
+    public static GameRequest decodeRequest(ByteBuffer buffer) {
+        try {
+            byte type = readHeader(buffer);
+            return switch (type) {
+                case JOIN -> new GameRequest(GameRequest.JOIN, readUtf8(buffer, Byte.toUnsignedInt(buffer.get())), null);
+                case LEAVE -> new GameRequest(GameRequest.LEAVE, null, null);
+                case PLAY -> new GameRequest(GameRequest.PLAY, null, getCards(buffer));
+                case PASS -> new GameRequest(GameRequest.PASS, null, null);
+                default -> throw new IllegalArgumentException("Loại message không hỗ trợ: " + type);
+            };
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Frame bị cắt cụt", e);
+        }
+    }
+
+    private static ByteBuffer header(byte type, int payload) {
+        return ByteBuffer.allocate(HEADER + payload).put(VERSION).put(type);
+    }
+
+    private static byte readHeader(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Phiên bản giao thức không được hỗ trợ: " + version);
+        }
+        return buffer.get();
+    }
+
+    private static ByteBuffer putCards(ByteBuffer buffer, long cards) {
+        return buffer.put((byte) (cards >>> 48)).putShort((short) (cards >>> 32)).putInt((int) cards);
+    }
+
+    private static long getCards(ByteBuffer buffer) {
+        long high = Byte.toUnsignedLong(buffer.get()) << 48;
+        long middle = Short.toUnsignedLong(buffer.getShort()) << 32;
+        return high | middle | Integer.toUnsignedLong(buffer.getInt());
+    }
+
+    private static byte turn(Integer seat, Boolean lead) {
+        if (seat == null) {
+            return (byte) NO_TURN;
+        }
+        return (byte) (Boolean.TRUE.equals(lead) ? seat | LEAD_FLAG : seat);
+    }
+
+    private static Integer turnSeat(int turn) {
+        return turn == NO_TURN ? null : turn & ~LEAD_FLAG;
+    }
+
+    private static Boolean turnLead(int turn) {
+        return turn == NO_TURN ? null : (turn & LEAD_FLAG) != 0;
+    }
+
+    private static byte[] utf8(String value, int maxLength) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxLength) {
+            throw new IllegalArgumentException("Chuỗi quá dài");
+        }
+        return bytes;
+    }
+
+    private static String readUtf8(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.be.game.protocol;
+
+/**
+ * Lệnh client gửi lên. Dạng JSON: {@code {"type":"join|leave|play|pass","room":"...","cards":<bitboard>}};
+ * dạng nhị phân xem {@link BinaryFrameCodec}.
+ */
+public record GameRequest(String type, String room, Long cards) {
+
+    public static final String JOIN = "join";
+    public static final String LEAVE = "leave";
+    public static final String PLAY = "play";
+    public static final String PASS = "pass";
+}
@@ -0,0 +1,11 @@
+package com.example.be.game.room;
+
+/**
+ * Giữ ghế của người chơi trong ván khôi phục từ journal cho tới khi họ kết nối lại; không nhận sự kiện nào.
+ */
+record RecoveredMember(String email) implements RoomMember {
+
+    @Override
+    public void send(RoomFrame frame) {
+    }
+}
@@ -0,0 +1,434 @@
+package com.example.be.game.room;
+
+import com.example.be.game.Cards;
+import com.example.be.game.Combination;
+import com.example.be.game.Deck;
+import com.example.be.game.journal.GameJournal;
+import com.example.be.game.journal.RoomSnapshot;
+import com.example.be.game.timer.HashedWheelTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Một bàn chơi chạy như actor: mọi lệnh đi qua mailbox và được xử lý tuần tự, tối đa một luồng tại một thời điểm,
+ * nên trạng thái ván bài không cần khóa. Hàng nghìn actor dùng chung pool luồng nhỏ của {@link RoomManager}.
+ */
+public class RoomActor {
+
+    static final int SEATS = Deck.PLAYERS;
+    // Số lệnh tối đa mỗi lượt chạy, sau đó nhường luồng cho phòng khác
+    static final int BATCH_SIZE = 64;
+    static final long THREE_OF_SPADES = Cards.bit(Cards.index(0, 0));
+
+    final String id;
+    final boolean matched;
+    final RoomManager manager;
+    final GameJournal journal;
+    final Queue<RoomCommand> mailbox = new ConcurrentLinkedQueue<>();
+    final AtomicBoolean scheduled = new AtomicBoolean();
+
+    // Trạng thái dưới đây chỉ được đọc/ghi trong drain()
+    final RoomMember[] seats = new RoomMember[SEATS];
+    final long[] hands = new long[SEATS];
+    int occupied;
+    boolean closed;
+    boolean playing;
+    boolean firstPlay;
+    int turn;
+    int lastPlayer;
+    int passedMask;
+    int trick = Combination.INVALID;
+    // Tăng mỗi khi đổi lượt, để nhận ra lệnh hết giờ của lượt cũ
+    long turnSequence;
+    HashedWheelTimer.Timeout turnTimeout;
+    // Số bản ghi journal từ lần chia bài/snapshot gần nhất
+    int journalEntries;
+
+    RoomActor(String id, RoomManager manager) {
+        this.id = id;
+        this.matched = RoomManager.isMatchedRoom(id);
+        this.manager = manager;
+        this.journal = manager.journal();
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Gửi lệnh vào mailbox; lên lịch chạy actor nếu nó đang rảnh. Gọi được từ bất kỳ luồng nào.
+     */
+    public void tell(RoomCommand command) {
+        mailbox.offer(command);
+        schedule();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                manager.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Pool đã dừng khi node tắt (vd. hết giờ lượt tới sau shutdown): bỏ lệnh, ván dở khôi phục từ journal
+                mailbox.clear();
+                scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            RoomCommand command;
+            for (int i = 0; i < BATCH_SIZE && (command = mailbox.poll()) != null; i++) {
+                manager.recordMailboxDelay(System.nanoTime() - command.enqueuedAt(), TimeUnit.NANOSECONDS);
+                handle(command);
+            }
+        } finally {
+            scheduled.set(false);
+            if (!mailbox.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    private void handle(RoomCommand command) {
+        switch (command) {
+            case RoomCommand.Join join -> join(join.member(), join.reserved());
+            case RoomCommand.Leave leave -> leave(leave.member());
+            case RoomCommand.Play play -> play(play.member(), play.cards());
+            case RoomCommand.Pass pass -> pass(pass.member());
+            case RoomCommand.TurnTimeout timeout -> turnTimedOut(timeout.turnSequence());
+            case RoomCommand.Snapshot snapshot -> {
+                if (playing) {
+                    writeSnapshot();
+                }
+            }
+            case RoomCommand.Restore restore -> restore(restore.snapshot());
+        }
+    }
+
+    private void join(RoomMember member, boolean reserved) {
+        if (closed) {
+            // Phòng vừa đóng khi lệnh còn trong mailbox → chuyển sang actor mới cùng id
+            manager.join(id, member, reserved);
+            return;
+        }
+
+        int seat = seatOf(member.email());
+        if (seat >= 0) {
+            // Kết nối lại: thay kết nối cũ, gửi lại bài trên tay và trạng thái bàn (bộ phải chặn, số lá, lượt)
+            // vì played/passed chỉ mang delta
+            seats[seat] = member;
+            sendSeats(member);
+            if (playing) {
+                send(member, RoomEvent.dealt(id, seat, hands[seat]));
+                send(member, sync());
+            }
+            return;
+        }
+
+        if (matched && !reserved) {
+            send(member, RoomEvent.error(id, "Bạn không được xếp vào phòng này"));
+            // Không giữ actor rỗng do người lạ tạo ra
+            if (occupied == 0) {
+                closed = true;
+                manager.remove(this);
+            }
+            return;
+        }
+
+        seat = seatOf(null);
+        if (seat < 0) {
+            send(member, RoomEvent.error(id, "Phòng đã đủ người"));
+            return;
+        }
+        seats[seat] = member;
+        occupied++;
+        sendSeats(member);
+        broadcast(RoomEvent.seat(RoomEvent.JOINED, id, seat, member.email()));
+
+        if (occupied == SEATS && !playing) {
+            startGame();
+        }
+    }
+
+    private void leave(RoomMember member) {
+        int seat = seatOf(member.email());
+        // Chỉ rời phòng nếu đúng kết nối đang ngồi (kết nối cũ đóng sau khi đã kết nối lại thì bỏ qua)
+        if (seat < 0 || seats[seat] != member) {
+            return;
+        }
+        seats[seat] = null;
+        occupied--;
+        broadcast(RoomEvent.seat(RoomEvent.LEFT, id, seat, member.email()));
+        // Thiếu người thì ván dừng lại, chờ đủ 4 người để chia ván mới
+        if (playing) {
+            journal.abort(id);
+        }
+        playing = false;
+        cancelTurnTimer();
+
+        if (occupied == 0) {
+            closed = true;
+            manager.remove(this);
+        }
+    }
+
+    private void startGame() {
+        Deck.deal(ThreadLocalRandom.current(), hands);
+        playing = true;
+        firstPlay = true;
+        trick = Combination.INVALID;
+        passedMask = 0;
+        for (int seat = 0; seat < SEATS; seat++) {
+            if ((hands[seat] & THREE_OF_SPADES) != 0) {
+                turn = seat;
+            }
+            send(seats[seat], RoomEvent.dealt(id, seat, hands[seat]));
+        }
+        lastPlayer = turn;
+        journal.deal(id, snapshot());
+        journalEntries = 0;
+        startTurnTimer();
+        broadcast(RoomEvent.turn(id, turn, true));
+    }
+
+    /**
+     * Dựng lại ván đọc được từ journal sau khi node khởi động lại. Người chơi kết nối lại theo email sẽ thay ghế
+     * tạm; trong lúc chờ, đồng hồ lượt tự đánh/bỏ lượt cho họ.
+     */
+    private void restore(RoomSnapshot snapshot) {
+        for (int seat = 0; seat < SEATS; seat++) {
+            seats[seat] = new RecoveredMember(snapshot.emails()[seat]);
+            hands[seat] = snapshot.hands()[seat];
+        }
+        occupied = SEATS;
+        playing = true;
+        turn = snapshot.turn();
+        lastPlayer = snapshot.lastPlayer();
+        passedMask = snapshot.passedMask();
+        trick = snapshot.trick();
+        firstPlay = snapshot.firstPlay();
+        // Mốc mới trong segment hiện tại để các segment cũ được dọn
+        writeSnapshot();
+        startTurnTimer();
+    }
+
+    private void play(RoomMember member, long cards) {
+        int seat = checkTurn(member);
+        if (seat < 0) {
+            return;
+        }
+        int combination = Combination.classify(cards);
+        if (combination == Combination.INVALID || !Cards.containsAll(hands[seat], cards)) {
+            send(member, RoomEvent.error(id, "Bộ bài không hợp lệ"));
+            return;
+        }
+        if (firstPlay && (cards & THREE_OF_SPADES) == 0) {
+            send(member, RoomEvent.error(id, "Nước đầu tiên phải có 3♠"));
+            return;
+        }
+        if (trick != Combination.INVALID && !Combination.beats(combination, trick)) {
+            send(member, RoomEvent.error(id, "Bộ bài không chặn được bộ trên bàn"));
+            return;
+        }
+
+        boolean chop = trick != Combination.INVALID && !sameShape(combination, trick);
+        hands[seat] &= ~cards;
+        trick = combination;
+        lastPlayer = seat;
+        firstPlay = false;
+        int remaining = Cards.count(hands[seat]);
+
+        if (remaining == 0) {
+            journal.play(id, seat, cards, chop, seat, false);
+            journal.win(id, seat);
+            broadcast(RoomEvent.played(id, seat, cards, combination, 0, null, null));
+            broadcast(RoomEvent.finished(id, seat));
+            playing = false;
+            cancelTurnTimer();
+            releaseRecoveredSeats();
+            if (occupied == SEATS) {
+                startGame();
+            }
+            return;
+        }
+        boolean lead = advance();
+        journal.play(id, seat, cards, chop, turn, lead);
+        journalled();
+        startTurnTimer();
+        broadcast(RoomEvent.played(id, seat, cards, combination, remaining, turn, lead));
+    }
+
+    private void pass(RoomMember member) {
+        int seat = checkTurn(member);
+        if (seat < 0) {
+            return;
+        }
+        if (trick == Combination.INVALID) {
+            send(member, RoomEvent.error(id, "Không thể bỏ lượt khi đang được đánh tự do"));
+            return;
+        }
+        passedMask |= 1 << seat;
+        boolean lead = advance();
+        journal.pass(id, seat, turn, lead);
+        journalled();
+        startTurnTimer();
+        broadcast(RoomEvent.passed(id, seat, turn, lead));
+    }
+
+    /**
+     * Chuyển lượt cho người kế tiếp chưa bỏ lượt; nếu vòng quay về người đánh cuối thì người đó được đánh tự do.
+     * Lượt mới đi kèm sự kiện played/passed thay vì một sự kiện turn riêng.
+     *
+     * @return true nếu người tới lượt được đánh tự do
+     */
+    private boolean advance() {
+        for (int step = 1; step < SEATS; step++) {
+            int next = (turn + step) % SEATS;
+            if (next == lastPlayer) {
+                break;
+            }
+            if ((passedMask & (1 << next)) == 0) {
+                turn = next;
+                return false;
+            }
+        }
+        trick = Combination.INVALID;
+        passedMask = 0;
+        turn = lastPlayer;
+        return true;
+    }
+
+    /**
+     * Hết giờ: người đang tới lượt tự bỏ lượt, hoặc tự đánh lá nhỏ nhất nếu đang được đánh tự do
+     * (đầu ván đó chính là 3♠).
+     */
+    private void turnTimedOut(long sequence) {
+        if (!playing || sequence != turnSequence || seats[turn] == null) {
+            return;
+        }
+        RoomMember member = seats[turn];
+        if (trick == Combination.INVALID) {
+            play(member, Cards.bit(Cards.lowest(hands[turn])));
+        } else {
+            pass(member);
+        }
+    }
+
+    /**
+     * Chặt (heo, đôi thông, tứ quý) là chặn bằng bộ khác loại hoặc khác độ dài.
+     */
+    private static boolean sameShape(int play, int target) {
+        return Combination.type(play) == Combination.type(target) && Combination.length(play) == Combination.length(target);
+    }
+
+    private void journalled() {
+        if (++journalEntries >= journal.snapshotEvery()) {
+            writeSnapshot();
+        }
+    }
+
+    private void writeSnapshot() {
+        journal.snapshot(id, snapshot());
+        journalEntries = 0;
+    }
+
+    private RoomSnapshot snapshot() {
+        String[] emails = new String[SEATS];
+        for (int seat = 0; seat < SEATS; seat++) {
+            emails[seat] = seats[seat].email();
+        }
+        return new RoomSnapshot(emails, hands.clone(), turn, lastPlayer, passedMask, trick, firstPlay);
+    }
+
+    /**
+     * Hết ván khôi phục mà người chơi vẫn chưa kết nối lại thì trả ghế, không tự chia ván mới cho họ.
+     */
+    private void releaseRecoveredSeats() {
+        for (int seat = 0; seat < SEATS; seat++) {
+            if (seats[seat] instanceof RecoveredMember recovered) {
+                seats[seat] = null;
+                occupied--;
+                broadcast(RoomEvent.seat(RoomEvent.LEFT, id, seat, recovered.email()));
+            }
+        }
+        if (occupied == 0) {
+            closed = true;
+            manager.remove(this);
+        }
+    }
+
+    private void startTurnTimer() {
+        cancelTurnTimer();
+        turnTimeout = manager.scheduleTurnTimeout(this, ++turnSequence);
+    }
+
+    private void cancelTurnTimer() {
+        if (turnTimeout != null) {
+            turnTimeout.cancel();
+            turnTimeout = null;
+        }
+    }
+
+    private int checkTurn(RoomMember member) {
+        int seat = seatOf(member.email());
+        if (!playing || seat < 0) {
+            send(member, RoomEvent.error(id, "Ván bài chưa bắt đầu"));
+            return -1;
+        }
+        if (seat != turn) {
+            send(member, RoomEvent.error(id, "Chưa tới lượt của bạn"));
+            return -1;
+        }
+        return seat;
+    }
+
+    private int seatOf(String email) {
+        for (int seat = 0; seat < SEATS; seat++) {
+            RoomMember member = seats[seat];
+            if (email == null ? member == null : member != null && member.email().equals(email)) {
+                return seat;
+            }
+        }
+        return -1;
+    }
+
+    private void sendSeats(RoomMember member) {
+        for (int seat = 0; seat < SEATS; seat++) {
+            if (seats[seat] != null && seats[seat] != member) {
+                send(member, RoomEvent.seat(RoomEvent.JOINED, id, seat, seats[seat].email()));
+            }
+        }
+    }
+
+    private RoomEvent sync() {
+        List<Integer> counts = new ArrayList<>(SEATS);
+        for (long hand : hands) {
+            counts.add(Cards.count(hand));
+        }
+        return RoomEvent.sync(id, lastPlayer, trick, counts, turn, trick == Combination.INVALID);
+    }
+
+    private void send(RoomMember member, RoomEvent event) {
+        if (member != null) {
+            member.send(manager.frame(event));
+        }
+    }
+
+    private void broadcast(RoomEvent event) {
+        // Mỗi định dạng chỉ mã hóa một lần cho cả phòng
+        RoomFrame frame = manager.frame(event);
+        for (RoomMember member : seats) {
+            if (member != null) {
+                member.send(frame);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.be.game.room;
+
+import com.example.be.game.journal.RoomSnapshot;
+
+/**
+ * Thông điệp gửi vào mailbox của {@link RoomActor}. {@code enqueuedAt} (System.nanoTime) dùng để đo thời gian chờ trong mailbox.
+ */
+public sealed interface RoomCommand {
+
+    long enqueuedAt();
+
+    /**
+     * {@code reserved}: người chơi được matchmaking xếp vào đúng phòng này (chỉ có ý nghĩa với phòng ghép bàn).
+     */
+    record Join(RoomMember member, boolean reserved, long enqueuedAt) implements RoomCommand {
+    }
+
+    record Leave(RoomMember member, long enqueuedAt) implements RoomCommand {
+    }
+
+    record Play(RoomMember member, long cards, long enqueuedAt) implements RoomCommand {
+    }
+
+    record Pass(RoomMember member, long enqueuedAt) implements RoomCommand {
+    }
+
+    /**
+     * Hết giờ lượt thứ {@code turnSequence}; bị bỏ qua nếu lượt đó đã kết thúc trước khi lệnh được xử lý.
+     */
+    record TurnTimeout(long turnSequence, long enqueuedAt) implements RoomCommand {
+    }
+
+    /**
+     * Journal yêu cầu ghi snapshot để dọn được segment cũ.
+     */
+    record Snapshot(long enqueuedAt) implements RoomCommand {
+    }
+
+    /**
+     * Dựng lại ván từ journal lúc khởi động.
+     */
+    record Restore(RoomSnapshot snapshot, long enqueuedAt) implements RoomCommand {
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.be.game.room;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Sự kiện phòng gửi cho client. Các trường không dùng của từng loại sự kiện để null và không được ghi ra.
+ * Sau khi chia bài, mỗi nước đi chỉ gửi phần trạng thái thay đổi (delta), client tự cập nhật bàn chơi:
+ * <ul>
+ *     <li>{@code joined}, {@code left}: seat, email</li>
+ *     <li>{@code dealt}: cards = bài trên tay (bitboard, xem {@link com.example.be.game.Cards})</li>
+ *     <li>{@code turn}: seat, lead = được đánh tự do (đầu ván)</li>
+ *     <li>{@code played}: seat, cards, combination (xem {@link com.example.be.game.Combination}), remaining = số lá
+ *     còn lại của seat, turn và lead của lượt kế tiếp (không có nếu seat vừa hết bài)</li>
+ *     <li>{@code passed}: seat, turn, lead</li>
+ *     <li>{@code sync} (kết nối lại giữa ván): seat = người đánh bộ đang trên bàn, combination = bộ đó
+ *     ({@link com.example.be.game.Combination#INVALID} nếu được đánh tự do), counts = số lá còn lại theo seat,
+ *     turn, lead</li>
+ *     <li>{@code finished}: seat người về nhất; {@code error}: message</li>
+ * </ul>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RoomEvent(
+        String type,
+        String room,
+        Integer seat,
+        String email,
+        Long cards,
+        Integer combination,
+        Integer remaining,
+        Integer turn,
+        Boolean lead,
+        String message,
+        List<Integer> counts) {
+
+    public static final String JOINED = "joined";
+    public static final String LEFT = "left";
+    public static final String DEALT = "dealt";
+    public static final String TURN = "turn";
+    public static final String PLAYED = "played";
+    public static final String PASSED = "passed";
+    public static final String FINISHED = "finished";
+    public static final String ERROR = "error";
+    public static final String SYNC = "sync";
+
+    static RoomEvent seat(String type, String room, int seat, String email) {
+        return new RoomEvent(type, room, seat, email, null, null, null, null, null, null, null);
+    }
+
+    static RoomEvent finished(String room, int seat) {
+        return new RoomEvent(FINISHED, room, seat, null, null, null, null, null, null, null, null);
+    }
+
+    static RoomEvent dealt(String room, int seat, long cards) {
+        return new RoomEvent(DEALT, room, seat, null, cards, null, null, null, null, null, null);
+    }
+
+    static RoomEvent turn(String room, int seat, boolean lead) {
+        return new RoomEvent(TURN, room, seat, null, null, null, null, null, lead, null, null);
+    }
+
+    static RoomEvent played(String room, int seat, long cards, int combination, int remaining, Integer turn, Boolean lead) {
+        return new RoomEvent(PLAYED, room, seat, null, cards, combination, remaining, turn, lead, null, null);
+    }
+
+    static RoomEvent passed(String room, int seat, int turn, boolean lead) {
+        return new RoomEvent(PASSED, room, seat, null, null, null, null, turn, lead, null, null);
+    }
+
+    static RoomEvent sync(String room, int lastPlayer, int trick, List<Integer> counts, int turn, boolean lead) {
+        return new RoomEvent(SYNC, room, lastPlayer, null, null, trick, null, turn, lead, null, counts);
+    }
+
+    public static RoomEvent error(String room, String message) {
+        return new RoomEvent(ERROR, room, null, null, null, null, null, null, null, message, null);
+    }
+}
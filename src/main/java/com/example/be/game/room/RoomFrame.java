@@ -0,0 +1,44 @@
+package com.example.be.game.room;
+
+import com.example.be.game.protocol.BinaryFrameCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Một sự kiện chờ gửi, được mã hóa (JSON hoặc nhị phân) tối đa một lần cho cả phòng rồi dùng lại cho mọi người
+ * chơi cùng định dạng. Không thread-safe: chỉ dùng trên luồng đang gọi {@link RoomMember#send}.
+ */
+public final class RoomFrame {
+
+    final RoomEvent event;
+    final ObjectMapper objectMapper;
+    String json;
+    byte[] binary;
+
+    RoomFrame(RoomEvent event, ObjectMapper objectMapper) {
+        this.event = event;
+        this.objectMapper = objectMapper;
+    }
+
+    public RoomEvent event() {
+        return event;
+    }
+
+    public String json() {
+        if (json == null) {
+            try {
+                json = objectMapper.writeValueAsString(event);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return json;
+    }
+
+    public byte[] binary() {
+        if (binary == null) {
+            binary = BinaryFrameCodec.encode(event);
+        }
+        return binary;
+    }
+}
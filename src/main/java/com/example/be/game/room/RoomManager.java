@@ -0,0 +1,151 @@
+package com.example.be.game.room;
+
+import com.example.be.game.journal.GameJournal;
+import com.example.be.game.timer.HashedWheelTimer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Quản lý các {@link RoomActor} theo id phòng. Phòng được tạo khi có người vào đầu tiên và bị xóa khi người cuối rời đi;
+ * mọi actor chạy trên một pool luồng cố định (mặc định bằng số core), không phải mỗi phòng một luồng.
+ * Khi khởi động, các ván còn dở trong {@link GameJournal} được dựng lại thành actor.
+ */
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RoomManager {
+
+    // Id phòng do matchmaking tạo: "m" + mức cược + "-" + số thứ tự
+    static Pattern MATCHED_ROOM = Pattern.compile("m\\d+-\\d+");
+
+    ConcurrentMap<String, RoomActor> rooms = new ConcurrentHashMap<>();
+    ExecutorService executor;
+    ObjectMapper objectMapper;
+    HashedWheelTimer timer;
+    GameJournal journal;
+    long turnTimeoutMs;
+    Timer mailboxTimer;
+
+    public RoomManager(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            HashedWheelTimer timer,
+            GameJournal journal,
+            @Value("${game.room.threads}") int threads,
+            @Value("${game.turn-timeout-ms}") long turnTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.timer = timer;
+        this.journal = journal;
+        this.turnTimeoutMs = turnTimeoutMs;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+                r -> {
+                    Thread thread = new Thread(r, "room-actor-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+
+        this.mailboxTimer = meterRegistry.timer("game.room.mailbox.latency");
+        Gauge.builder("game.room.active", rooms, ConcurrentMap::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void recover() {
+        journal.onSnapshotRequest(roomId -> tell(roomId, new RoomCommand.Snapshot(System.nanoTime())));
+        journal.recover().forEach((roomId, snapshot) -> rooms.computeIfAbsent(roomId, id -> new RoomActor(id, this))
+                .tell(new RoomCommand.Restore(snapshot, System.nanoTime())));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public void join(String roomId, RoomMember member) {
+        join(roomId, member, false);
+    }
+
+    /**
+     * Vào phòng; phòng ghép bàn chỉ nhận ghế mới khi {@code reserved}, người đã có ghế vẫn kết nối lại được.
+     */
+    public void join(String roomId, RoomMember member, boolean reserved) {
+        rooms.computeIfAbsent(roomId, id -> new RoomActor(id, this))
+                .tell(new RoomCommand.Join(member, reserved, System.nanoTime()));
+    }
+
+    public static boolean isMatchedRoom(String roomId) {
+        return MATCHED_ROOM.matcher(roomId).matches();
+    }
+
+    public void leave(String roomId, RoomMember member) {
+        tell(roomId, new RoomCommand.Leave(member, System.nanoTime()));
+    }
+
+    public void play(String roomId, RoomMember member, long cards) {
+        tell(roomId, new RoomCommand.Play(member, cards, System.nanoTime()));
+    }
+
+    public void pass(String roomId, RoomMember member) {
+        tell(roomId, new RoomCommand.Pass(member, System.nanoTime()));
+    }
+
+    public int activeRooms() {
+        return rooms.size();
+    }
+
+    private void tell(String roomId, RoomCommand command) {
+        RoomActor actor = rooms.get(roomId);
+        if (actor != null) {
+            actor.tell(command);
+        }
+    }
+
+    void remove(RoomActor actor) {
+        // Chỉ xóa đúng actor này, không xóa actor mới cùng id vừa được tạo
+        rooms.remove(actor.id(), actor);
+    }
+
+    GameJournal journal() {
+        return journal;
+    }
+
+    void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Hẹn giờ hết lượt; khi tới hạn chỉ gửi lệnh vào mailbox của phòng, việc tự đánh/bỏ lượt chạy trên luồng actor.
+     */
+    HashedWheelTimer.Timeout scheduleTurnTimeout(RoomActor actor, long turnSequence) {
+        return timer.schedule(
+                () -> actor.tell(new RoomCommand.TurnTimeout(turnSequence, System.nanoTime())),
+                turnTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    void recordMailboxDelay(long amount, TimeUnit unit) {
+        mailboxTimer.record(amount, unit);
+    }
+
+    public RoomFrame frame(RoomEvent event) {
+        return new RoomFrame(event, objectMapper);
+    }
+}
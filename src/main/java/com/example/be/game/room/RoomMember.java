@@ -0,0 +1,12 @@
+package com.example.be.game.room;
+
+/**
+ * Một người chơi trong phòng. {@link #send} được gọi trên luồng của actor nên phải không chặn;
+ * người chơi tự chọn định dạng (JSON hay nhị phân) từ {@link RoomFrame}.
+ */
+public interface RoomMember {
+
+    String email();
+
+    void send(RoomFrame frame);
+}
@@ -0,0 +1,256 @@
+package com.example.be.game.timer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bộ hẹn giờ dạng bánh xe băm (hashed timing wheel) cho đồng hồ lượt của hàng chục nghìn bàn chơi.
+ * Đặt và hủy hẹn giờ đều O(1) và không khóa: luồng gọi chỉ đẩy vào hàng đợi, một luồng duy nhất mỗi tick chuyển
+ * hẹn giờ mới vào ô của bánh xe, gỡ hẹn giờ đã hủy rồi chạy toàn bộ hẹn giờ tới hạn của ô hiện tại một lượt.
+ * Độ chính xác bằng một tick; callback chạy trên luồng của bánh xe nên chỉ được chuyển việc đi (ví dụ gửi vào
+ * mailbox của phòng), không được chặn.
+ */
+@Slf4j
+@Component
+public class HashedWheelTimer {
+
+    // Giới hạn số hẹn giờ mới được chuyển vào bánh xe mỗi tick để một đợt dồn dập không làm trễ tick
+    static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    final long tickNanos;
+    final int mask;
+    final Bucket[] wheel;
+    final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    final AtomicInteger active = new AtomicInteger();
+    final AtomicLong lagNanos = new AtomicLong();
+    final long startTime = System.nanoTime();
+    final Thread worker;
+    volatile boolean running = true;
+    long tick;
+
+    final Timer tickLagTimer;
+    final Counter expiredCounter;
+
+    public HashedWheelTimer(
+            MeterRegistry meterRegistry,
+            @Value("${game.timer.tick-ms}") long tickMs,
+            @Value("${game.timer.wheel-size}") int wheelSize) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tick-ms và wheel-size phải lớn hơn 0");
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        // Làm tròn lên lũy thừa của 2 để lấy ô bằng phép AND
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        this.wheel = new Bucket[Math.max(size, 1)];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+
+        this.tickLagTimer = meterRegistry.timer("game.timer.tick.lag");
+        this.expiredCounter = meterRegistry.counter("game.timer.expired");
+        Gauge.builder("game.timer.pending", active, AtomicInteger::get)
+                .register(meterRegistry);
+        Gauge.builder("game.timer.lag.current", lagNanos, lag -> lag.get() / 1_000_000.0)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
+        this.worker = new Thread(this::run, "game-timer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Đặt hẹn giờ; gọi được từ bất kỳ luồng nào.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(this, task, System.nanoTime() - startTime + unit.toNanos(delay));
+        active.incrementAndGet();
+        pending.offer(timeout);
+        return timeout;
+    }
+
+    /**
+     * Số hẹn giờ đang chờ (chưa tới hạn và chưa hủy).
+     */
+    public int pendingTimeouts() {
+        return active.get();
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = tickNanos * (tick + 1);
+            long now = waitUntil(deadline);
+            if (!running) {
+                return;
+            }
+            // Tick chạy trễ so với lịch: luồng bị tranh CPU, GC hoặc callback quá chậm
+            long lag = now - deadline;
+            lagNanos.set(lag);
+            tickLagTimer.record(lag, TimeUnit.NANOSECONDS);
+
+            removeCancelled();
+            transferPending();
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    private long waitUntil(long deadline) {
+        long now;
+        while (running && (now = System.nanoTime() - startTime) < deadline) {
+            LockSupport.parkNanos(deadline - now);
+        }
+        return System.nanoTime() - startTime;
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK && (timeout = pending.poll()) != null; i++) {
+            if (timeout.state.get() != Timeout.WAITING) {
+                continue;
+            }
+            long target = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (target - tick) / wheel.length;
+            // Hẹn giờ đã quá hạn được chạy ngay ở tick hiện tại
+            wheel[(int) (Math.max(target, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void onExpired(Timeout timeout) {
+        active.decrementAndGet();
+        expiredCounter.increment();
+        try {
+            timeout.task.run();
+        } catch (RuntimeException e) {
+            log.warn("Callback hẹn giờ lỗi: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Một hẹn giờ; {@link #cancel()} chỉ đánh dấu, luồng bánh xe gỡ khỏi ô ở tick kế tiếp.
+     */
+    public static final class Timeout {
+
+        static final int WAITING = 0;
+        static final int CANCELLED = 1;
+        static final int EXPIRED = 2;
+
+        final HashedWheelTimer timer;
+        final Runnable task;
+        final long deadline;
+        final AtomicInteger state = new AtomicInteger(WAITING);
+
+        // Chỉ luồng bánh xe đọc/ghi
+        long remainingRounds;
+        Bucket bucket;
+        Timeout prev;
+        Timeout next;
+
+        Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return false nếu hẹn giờ đã chạy hoặc đã bị hủy trước đó
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            timer.active.decrementAndGet();
+            timer.cancelled.offer(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+    }
+
+    /**
+     * Một ô của bánh xe: danh sách liên kết đôi để gỡ hẹn giờ đã hủy trong O(1).
+     */
+    final class Bucket {
+
+        Timeout head;
+        Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (timeout.state.compareAndSet(Timeout.WAITING, Timeout.EXPIRED)) {
+                        onExpired(timeout);
+                    }
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
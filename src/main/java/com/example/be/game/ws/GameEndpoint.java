@@ -0,0 +1,147 @@
+package com.example.be.game.ws;
+
+import com.example.be.game.protocol.BinaryFrameCodec;
+import com.example.be.game.protocol.GameRequest;
+import com.example.be.game.room.RoomEvent;
+import com.example.be.game.room.RoomManager;
+import com.example.be.service.MatchmakingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.MessageHandler;
+import jakarta.websocket.Session;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Endpoint {@code /ws/game}. Một instance dùng chung cho mọi kết nối, trạng thái từng kết nối nằm trong
+ * {@link WebSocketMember}; message chỉ được parse rồi chuyển vào mailbox của phòng, không xử lý game tại đây.
+ * Nhận cả frame text (JSON, để debug) và frame nhị phân ({@link BinaryFrameCodec}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class GameEndpoint extends Endpoint {
+
+    static final String MEMBER = "game.member";
+
+    final RoomManager roomManager;
+    final MatchmakingService matchmakingService;
+    final ObjectMapper objectMapper;
+
+    @Value("${game.ws.max-buffered-messages}")
+    int maxBufferedMessages;
+
+    @Value("${game.ws.max-idle-ms}")
+    long maxIdleMs;
+
+    @Override
+    public void onOpen(Session session, EndpointConfig config) {
+        String email = (String) config.getUserProperties().get(GameHandshakeConfigurator.PRINCIPAL);
+        if (email == null) {
+            close(session, new CloseReason(CloseReason.CloseCodes.VIOLATED_POLICY, "Unauthorized"));
+            return;
+        }
+
+        WebSocketMember member = new WebSocketMember(session, email, maxBufferedMessages);
+        session.getUserProperties().put(MEMBER, member);
+        session.setMaxIdleTimeout(maxIdleMs);
+        session.addMessageHandler(String.class, (MessageHandler.Whole<String>) text -> onText(member, text));
+        session.addMessageHandler(ByteBuffer.class, (MessageHandler.Whole<ByteBuffer>) bytes -> onBinary(member, bytes));
+    }
+
+    @Override
+    public void onClose(Session session, CloseReason closeReason) {
+        if (session.getUserProperties().get(MEMBER) instanceof WebSocketMember member && member.getRoom() != null) {
+            roomManager.leave(member.getRoom(), member);
+        }
+    }
+
+    @Override
+    public void onError(Session session, Throwable throwable) {
+        log.debug("Lỗi WebSocket {}: {}", session.getId(), throwable.getMessage());
+    }
+
+    private void onText(WebSocketMember member, String text) {
+        GameRequest request;
+        try {
+            request = objectMapper.readValue(text, GameRequest.class);
+        } catch (IOException e) {
+            sendError(member, null, "Message không hợp lệ");
+            return;
+        }
+        onRequest(member, request);
+    }
+
+    private void onBinary(WebSocketMember member, ByteBuffer bytes) {
+        GameRequest request;
+        try {
+            request = BinaryFrameCodec.decodeRequest(bytes);
+        } catch (IllegalArgumentException e) {
+            sendError(member, null, e.getMessage());
+            return;
+        }
+        onRequest(member, request);
+    }
+
+    private void onRequest(WebSocketMember member, GameRequest request) {
+        String current = member.getRoom();
+        switch (request.type() == null ? "" : request.type()) {
+            case GameRequest.JOIN -> {
+                if (request.room() == null || request.room().isBlank()) {
+                    sendError(member, null, "Thiếu mã phòng");
+                    return;
+                }
+                // Mỗi kết nối chỉ ngồi một phòng
+                if (current != null && !current.equals(request.room())) {
+                    roomManager.leave(current, member);
+                }
+                // Tra Redis ở đây để luồng actor không bị chặn; phòng tự cho người đã có ghế kết nối lại
+                boolean reserved = RoomManager.isMatchedRoom(request.room())
+                        && matchmakingService.isSeatedIn(member.email(), request.room());
+                member.setRoom(request.room());
+                roomManager.join(request.room(), member, reserved);
+            }
+            case GameRequest.LEAVE -> {
+                if (current != null) {
+                    member.setRoom(null);
+                    roomManager.leave(current, member);
+                }
+            }
+            case GameRequest.PLAY -> {
+                if (current == null || request.cards() == null) {
+                    sendError(member, current, "Chưa vào phòng hoặc thiếu bài");
+                    return;
+                }
+                roomManager.play(current, member, request.cards());
+            }
+            case GameRequest.PASS -> {
+                if (current != null) {
+                    roomManager.pass(current, member);
+                }
+            }
+            default -> sendError(member, current, "Loại message không hỗ trợ");
+        }
+    }
+
+    private void sendError(WebSocketMember member, String room, String message) {
+        member.send(roomManager.frame(RoomEvent.error(room, message)));
+    }
+
+    private static void close(Session session, CloseReason reason) {
+        try {
+            session.close(reason);
+        } catch (IOException e) {
+            log.debug("Đóng WebSocket {} thất bại: {}", session.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.be.game.ws;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.be.service.JwtService;
+import com.example.be.service.TokenRevocationService;
+import com.example.be.service.UserStateCache;
+import jakarta.websocket.HandshakeResponse;
+import jakarta.websocket.server.HandshakeRequest;
+import jakarta.websocket.server.ServerEndpointConfig;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Xác thực JWT ngay trong HTTP handshake (header {@code Authorization: Bearer} hoặc query {@code access_token}
+ * cho client trình duyệt không đặt được header). Kết quả được lưu vào user properties của session;
+ * {@link GameEndpoint} đóng kết nối nếu không có.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class GameHandshakeConfigurator extends ServerEndpointConfig.Configurator {
+
+    static final String PRINCIPAL = "game.principal";
+
+    JwtService jwtService;
+    TokenRevocationService tokenRevocationService;
+    UserStateCache userStateCache;
+    GameEndpoint gameEndpoint;
+
+    @Override
+    public void modifyHandshake(ServerEndpointConfig config, HandshakeRequest request, HandshakeResponse response) {
+        String token = extractToken(request);
+        if (token == null) {
+            return;
+        }
+        try {
+            DecodedJWT decoded = jwtService.verifyToken(token);
+            if (tokenRevocationService.isRevoked(decoded)) {
+                return;
+            }
+            UserStateCache.UserState state = userStateCache.get(decoded.getSubject());
+            if (state == null || !state.active()) {
+                return;
+            }
+            // Tomcat tạo user properties riêng cho từng handshake nên không lẫn giữa các kết nối
+            config.getUserProperties().put(PRINCIPAL, decoded.getSubject());
+        } catch (Exception ex) {
+            log.debug("Handshake WebSocket bị từ chối: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getEndpointInstance(Class<T> endpointClass) {
+        // Dùng bean Spring thay vì để container tự khởi tạo endpoint
+        return (T) gameEndpoint;
+    }
+
+    private static String extractToken(HandshakeRequest request) {
+        String header = first(request.getHeaders(), "Authorization");
+        if (header == null) {
+            header = first(request.getHeaders(), "authorization");
+        }
+        if (header != null && header.startsWith("Bearer ")) {
+            return header.substring(7);
+        }
+        return first(request.getParameterMap(), "access_token");
+    }
+
+    private static String first(Map<String, List<String>> values, String name) {
+        List<String> list = values.get(name);
+        return list == null || list.isEmpty() ? null : list.get(0);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.be.game.ws;
+
+import com.example.be.game.protocol.BinaryFrameCodec;
+import com.example.be.game.room.RoomFrame;
+import com.example.be.game.room.RoomMember;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Người chơi gắn với một WebSocket session. Session chọn subprotocol {@value BinaryFrameCodec#SUBPROTOCOL} nhận frame
+ * nhị phân, còn lại nhận JSON. {@link #send} chỉ xếp frame vào hàng đợi riêng của session rồi gửi
+ * bất đồng bộ từng frame một, nên luồng actor không bao giờ chờ I/O mạng. Client đọc chậm để hàng đợi vượt
+ * {@code maxBufferedMessages} sẽ bị ngắt kết nối thay vì làm phình bộ nhớ.
+ */
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class WebSocketMember implements RoomMember {
+
+    Session session;
+    String email;
+    int maxBufferedMessages;
+    boolean binary;
+    // String (JSON) hoặc ByteBuffer (nhị phân)
+    Queue<Object> outbound = new ConcurrentLinkedQueue<>();
+    AtomicInteger buffered = new AtomicInteger();
+    AtomicBoolean sending = new AtomicBoolean();
+    AtomicBoolean closing = new AtomicBoolean();
+
+    // Phòng hiện tại, chỉ được đổi trên luồng xử lý message của session
+    @NonFinal
+    volatile String room;
+
+    public WebSocketMember(Session session, String email, int maxBufferedMessages) {
+        this.session = session;
+        this.email = email;
+        this.maxBufferedMessages = maxBufferedMessages;
+        this.binary = BinaryFrameCodec.SUBPROTOCOL.equals(session.getNegotiatedSubprotocol());
+    }
+
+    @Override
+    public String email() {
+        return email;
+    }
+
+    @Override
+    public void send(RoomFrame frame) {
+        if (closing.get()) {
+            return;
+        }
+        if (buffered.incrementAndGet() > maxBufferedMessages) {
+            close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Client đọc quá chậm"));
+            return;
+        }
+        // Mã hóa ngay trên luồng gọi; mỗi session một ByteBuffer riêng bọc cùng mảng byte của phòng
+        outbound.offer(binary ? ByteBuffer.wrap(frame.binary()) : frame.json());
+        flush();
+    }
+
+    String getRoom() {
+        return room;
+    }
+
+    void setRoom(String room) {
+        this.room = room;
+    }
+
+    private void flush() {
+        // Mỗi session chỉ có một lần gửi async đang chạy; frame tiếp theo được gửi trong callback
+        while (sending.compareAndSet(false, true)) {
+            Object frame = outbound.poll();
+            if (frame instanceof ByteBuffer bytes) {
+                session.getAsyncRemote().sendBinary(bytes, this::onSent);
+                return;
+            }
+            if (frame != null) {
+                session.getAsyncRemote().sendText((String) frame, this::onSent);
+                return;
+            }
+            sending.set(false);
+            if (outbound.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    private void onSent(SendResult result) {
+        buffered.decrementAndGet();
+        sending.set(false);
+        if (!result.isOK()) {
+            close(new CloseReason(CloseReason.CloseCodes.UNEXPECTED_CONDITION, "Gửi dữ liệu thất bại"));
+            return;
+        }
+        flush();
+    }
+
+    private void close(CloseReason reason) {
+        if (!closing.compareAndSet(false, true)) {
+            return;
+        }
+        outbound.clear();
+        // session.close() có thể chờ ghi close frame → không chạy trên luồng actor
+        CompletableFuture.runAsync(() -> {
+            try {
+                session.close(reason);
+            } catch (IOException e) {
+                log.debug("Đóng WebSocket của {} thất bại: {}", email, e.getMessage());
+            }
+        });
+    }
+}
@@ -2,9 +2,11 @@ package com.example.be.mapper;
 
 import com.example.be.dto.response.ProfileResponse;
 import com.example.be.entity.User;
+import com.example.be.repository.projection.UserProfileView;
 import org.mapstruct.Mapper;
 
 @Mapper(componentModel = "spring")
 public interface UserMapper {
     ProfileResponse toProfileResponse(User user);
+    ProfileResponse toProfileResponse(UserProfileView user);
 }
@@ -3,9 +3,5 @@ package com.example.be.repository;
 import com.example.be.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.Optional;
-
-public interface UserRepository extends JpaRepository<User,String> {
-    boolean existsByEmail(String email);
-    Optional<User> findByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 }
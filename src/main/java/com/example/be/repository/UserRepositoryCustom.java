@@ -0,0 +1,22 @@
+package com.example.be.repository;
+
+import com.example.be.entity.User;
+import com.example.be.repository.projection.UserAuthView;
+import com.example.be.repository.projection.UserProfileView;
+
+import java.util.Optional;
+
+/**
+ * Tra cứu User theo email qua natural-id của Hibernate để dùng second-level cache.
+ */
+public interface UserRepositoryCustom {
+    boolean existsByEmail(String email);
+    Optional<User> findByEmail(String email);
+
+    /**
+     * Các cột cần cho xác thực, dựng từ entity trong second-level cache (xóa theo id khi User thay đổi).
+     */
+    Optional<UserAuthView> findAuthViewByEmail(String email);
+
+    Optional<UserProfileView> findProfileViewByEmail(String email);
+}
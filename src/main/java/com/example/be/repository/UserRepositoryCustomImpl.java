@@ -0,0 +1,61 @@
+package com.example.be.repository;
+
+import com.example.be.entity.User;
+import com.example.be.repository.projection.UserAuthView;
+import com.example.be.repository.projection.UserProfileView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnit;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * Truy vấn dẫn xuất findByEmail luôn chạy SQL; tra cứu theo natural-id thì đọc
+ * email → id từ natural-id cache và entity từ second-level cache, chỉ xuống MySQL khi cache miss.
+ * Hibernate tự cập nhật cả hai vùng cache khi transaction ghi User được commit.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return findByEmail(email).isPresent();
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        // Đã có EntityManager gắn với luồng (transaction, open-in-view) → dùng chung
+        if (TransactionSynchronizationManager.hasResource(entityManagerFactory)) {
+            return entityManager.unwrap(Session.class)
+                    .bySimpleNaturalId(User.class)
+                    .loadOptional(email);
+        }
+
+        // Ngoài transaction (ví dụ trong filter): mở session ngắn, chỉ lấy kết nối JDBC khi cache miss
+        try (Session session = entityManagerFactory.unwrap(SessionFactory.class).openSession()) {
+            return session.bySimpleNaturalId(User.class).loadOptional(email);
+        }
+    }
+
+    // Projection dựng từ entity đã cache theo natural-id thay vì một truy vấn riêng
+    @Override
+    public Optional<UserAuthView> findAuthViewByEmail(String email) {
+        return findByEmail(email)
+                .map(user -> new UserAuthView(user.getEmail(), user.getPassword(), user.getRole(), user.getActive(), user.getVersion()));
+    }
+
+    @Override
+    public Optional<UserProfileView> findProfileViewByEmail(String email) {
+        return findByEmail(email)
+                .map(user -> new UserProfileView(user.getId(), user.getEmail(), user.getFullName(), user.getAvatar(), user.getRole(), user.getVersion()));
+    }
+}
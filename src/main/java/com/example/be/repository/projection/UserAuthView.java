@@ -0,0 +1,9 @@
+package com.example.be.repository.projection;
+
+import com.example.be.enums.Role;
+
+/**
+ * Các cột cần cho xác thực, không tải toàn bộ entity User.
+ */
+public record UserAuthView(String email, String password, Role role, Boolean active, Long version) {
+}
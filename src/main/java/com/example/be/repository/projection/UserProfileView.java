@@ -0,0 +1,9 @@
+package com.example.be.repository.projection;
+
+import com.example.be.enums.Role;
+
+/**
+ * Các cột hiển thị trên trang cá nhân.
+ */
+public record UserProfileView(Long id, String email, String fullName, String avatar, Role role, Long version) {
+}
@@ -1,5 +1,6 @@
 package com.example.be.service;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.example.be.dto.request.*;
 import com.example.be.dto.response.AuthResponse;
 import com.example.be.entity.User;
@@ -7,11 +8,11 @@ import com.example.be.enums.AuthProvider;
 import com.example.be.enums.OtpType;
 import com.example.be.exception.BusinessException;
 import com.example.be.repository.UserRepository;
+import com.example.be.utils.StageTimers;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.json.JsonFactory;
-import com.google.api.client.json.gson.GsonFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -21,14 +22,13 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.Collections;
 import java.util.Map;
+import java.util.Optional;
 
 
 @Slf4j
@@ -38,11 +38,14 @@ import java.util.Map;
 public class AuthService {
 
     final UserRepository userRepository;
-    final PasswordEncoder passwordEncoder;
+    final PasswordHashingService passwordHashingService;
     final OtpService otpService;
-    final MailService mailService;
+    final MailOutboxService mailOutboxService;
     final JwtService jwtService;
-    final RestTemplate restTemplate = new RestTemplate();
+    final GoogleIdTokenService googleIdTokenService;
+    final TokenRevocationService tokenRevocationService;
+    final RestTemplate restTemplate;
+    final MeterRegistry meterRegistry;
 
     @Value("${google.client-id}")
     String googleClientId;
@@ -53,13 +56,83 @@ public class AuthService {
     @Value("${google.redirect-uri}")
     String googleRedirectUri;
 
+    @Value("${google.token-uri}")
+    String googleTokenUri;
+
+    Timer registerExistsTimer;
+    Timer registerPrecheckTimer;
+    Timer registerHashTimer;
+    Timer registerOtpTimer;
+    Timer registerEnqueueTimer;
+
+    Timer verifyRegisterOtpTimer;
+    Timer verifyRegisterPendingTimer;
+    Timer verifyRegisterExistsTimer;
+    Timer verifyRegisterSaveTimer;
+
+    Timer loginLookupTimer;
+    Timer loginMatchTimer;
+    Timer loginRehashTimer;
+    Timer loginSignTimer;
+
+    Timer forgotLookupTimer;
+    Timer forgotOtpTimer;
+    Timer forgotEnqueueTimer;
+
+    Timer verifyForgotLookupTimer;
+    Timer verifyForgotOtpTimer;
+    Timer verifyForgotHashTimer;
+    Timer verifyForgotSaveTimer;
+
+    Timer googleExchangeTimer;
+    Timer googleVerifyTimer;
+    Timer googleUpsertTimer;
+    Timer googleSignTimer;
+
+    @PostConstruct
+    void init() {
+        // Mỗi bước của mỗi luồng có một Timer riêng (tag flow + stage), dựng sẵn để hot path không tạo tag
+        registerExistsTimer = StageTimers.authStage(meterRegistry, "register", "exists_check");
+        registerPrecheckTimer = StageTimers.authStage(meterRegistry, "register", "otp_precheck");
+        registerHashTimer = StageTimers.authStage(meterRegistry, "register", "password_hash");
+        registerOtpTimer = StageTimers.authStage(meterRegistry, "register", "otp_issue");
+        registerEnqueueTimer = StageTimers.authStage(meterRegistry, "register", "mail_enqueue");
+
+        verifyRegisterOtpTimer = StageTimers.authStage(meterRegistry, "verify_register", "otp_verify");
+        verifyRegisterPendingTimer = StageTimers.authStage(meterRegistry, "verify_register", "load_pending");
+        verifyRegisterExistsTimer = StageTimers.authStage(meterRegistry, "verify_register", "exists_check");
+        verifyRegisterSaveTimer = StageTimers.authStage(meterRegistry, "verify_register", "save");
+
+        loginLookupTimer = StageTimers.authStage(meterRegistry, "login", "lookup");
+        loginMatchTimer = StageTimers.authStage(meterRegistry, "login", "password_match");
+        loginRehashTimer = StageTimers.authStage(meterRegistry, "login", "rehash");
+        loginSignTimer = StageTimers.authStage(meterRegistry, "login", "jwt_sign");
+
+        forgotLookupTimer = StageTimers.authStage(meterRegistry, "forgot_password", "lookup");
+        forgotOtpTimer = StageTimers.authStage(meterRegistry, "forgot_password", "otp_issue");
+        forgotEnqueueTimer = StageTimers.authStage(meterRegistry, "forgot_password", "mail_enqueue");
+
+        verifyForgotLookupTimer = StageTimers.authStage(meterRegistry, "verify_forgot_password", "lookup");
+        verifyForgotOtpTimer = StageTimers.authStage(meterRegistry, "verify_forgot_password", "otp_verify");
+        verifyForgotHashTimer = StageTimers.authStage(meterRegistry, "verify_forgot_password", "password_hash");
+        verifyForgotSaveTimer = StageTimers.authStage(meterRegistry, "verify_forgot_password", "save");
+
+        googleExchangeTimer = StageTimers.authStage(meterRegistry, "google_login", "token_exchange");
+        googleVerifyTimer = StageTimers.authStage(meterRegistry, "google_login", "id_token_verify");
+        googleUpsertTimer = StageTimers.authStage(meterRegistry, "google_login", "user_upsert");
+        googleSignTimer = StageTimers.authStage(meterRegistry, "google_login", "jwt_sign");
+    }
+
     /**
      * Đăng ký tài khoản mới bằng email và password.
      */
     public void register(RegisterRequest request) {
         String email = request.getEmail();
 
-        if(userRepository.existsByEmail(email)) {
+        long start = System.nanoTime();
+        boolean exists = userRepository.existsByEmail(email);
+        start = StageTimers.lap(registerExistsTimer, start);
+        if(exists) {
             throw new BusinessException("Email đã tồn tại trong hệ thống", 400);
         }
 
@@ -67,12 +140,19 @@ public class AuthService {
             throw new BusinessException("Mật khẩu xác nhận không khớp", 400);
         }
 
-        // Lưu thông tin đăng ký tạm thời trong Redis
-        otpService.storePendingRegistration(email, request);
+        // Email đang bị khóa/cooldown thì từ chối trước khi tốn BCrypt
+        otpService.ensureCanIssue(email, OtpType.REGISTER);
+        start = StageTimers.lap(registerPrecheckTimer, start);
+
+        // Hash mật khẩu ngay lúc đăng ký: Redis không giữ mật khẩu gốc, bước xác minh không tốn BCrypt
+        String encodedPassword = passwordHashingService.encode(request.getPassword());
+        start = StageTimers.lap(registerHashTimer, start);
 
-        // Sinh và gửi OTP
-        String otp = otpService.generateAndStoreOtp(email, OtpType.REGISTER);
-        mailService.sendOtpEmail(email, otp, OtpType.REGISTER);
+        // Sinh OTP và lưu thông tin đăng ký tạm thời trong Redis, sau đó xếp hàng gửi email
+        String otp = otpService.generateRegistrationOtp(email, new PendingRegistration(request.getFullName(), encodedPassword));
+        start = StageTimers.lap(registerOtpTimer, start);
+        mailOutboxService.enqueueOtpEmail(email, otp, OtpType.REGISTER);
+        StageTimers.lap(registerEnqueueTimer, start);
     }
 
     /**
@@ -83,27 +163,33 @@ public class AuthService {
         String otpInput = request.getOtpCode();
 
         // Kiểm tra OTP
+        long start = System.nanoTime();
         otpService.verifyOtp(email, otpInput, OtpType.REGISTER);
+        start = StageTimers.lap(verifyRegisterOtpTimer, start);
 
         // Lấy dữ liệu đăng ký đã lưu tạm trong Redis
-        RegisterRequest pendingRequest = otpService.getPendingRegistration(email);
-        if (pendingRequest == null) {
+        PendingRegistration pending = otpService.getPendingRegistration(email);
+        start = StageTimers.lap(verifyRegisterPendingTimer, start);
+        if (pending == null) {
             throw new BusinessException("Dữ liệu đăng ký đã hết hạn hoặc không tìm thấy.", 400);
         }
 
         // Kiểm tra lại
-        if(userRepository.existsByEmail(email)) {
+        boolean exists = userRepository.existsByEmail(email);
+        start = StageTimers.lap(verifyRegisterExistsTimer, start);
+        if(exists) {
             throw new BusinessException("Email đã tồn tại trong hệ thống", 400);
         }
 
         User user = User.builder()
-                .email(pendingRequest.getEmail())
-                .password(passwordEncoder.encode(pendingRequest.getPassword()))
-                .fullName(pendingRequest.getFullName())
+                .email(email)
+                .password(pending.encodedPassword())
+                .fullName(pending.fullName())
                 .authProvider(AuthProvider.NONE)
                 .build();
 
         userRepository.save(user);
+        StageTimers.lap(verifyRegisterSaveTimer, start);
 
         // Xóa dữ liệu đã lưu trong Redis
         otpService.deletePendingRegistration(email);
@@ -113,7 +199,10 @@ public class AuthService {
      * Đăng nhập bằng gmail và password
      */
     public AuthResponse login(LoginRequest request) {
-        User user = userRepository.findByEmail(request.getEmail()).orElseThrow(
+        long start = System.nanoTime();
+        Optional<User> found = userRepository.findByEmail(request.getEmail());
+        start = StageTimers.lap(loginLookupTimer, start);
+        User user = found.orElseThrow(
                 () -> new BusinessException("Email không tồn tại trong hệ thống", 404)
         );
 
@@ -125,11 +214,21 @@ public class AuthService {
             throw new BusinessException("Tài khoản này không hỗ trợ đăng nhập bằng email và mật khẩu", 400);
         }
 
-        if(!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        boolean matches = passwordHashingService.matches(request.getPassword(), user.getPassword());
+        start = StageTimers.lap(loginMatchTimer, start);
+        if(!matches) {
             throw new BusinessException("Mật khẩu không chính xác", 400);
         }
 
+        // Hash cũ có cost thấp hơn cấu hình hiện tại → hash lại khi đã có mật khẩu gốc
+        if(passwordHashingService.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHashingService.encode(request.getPassword()));
+            userRepository.save(user);
+            start = StageTimers.lap(loginRehashTimer, start);
+        }
+
         String token = jwtService.generateToken(user);
+        StageTimers.lap(loginSignTimer, start);
 
         return AuthResponse.builder()
                 .token(token)
@@ -142,7 +241,10 @@ public class AuthService {
     public void forgotPassword(ForgotPasswordRequest request) {
         String email = request.getEmail();
 
-        User user = userRepository.findByEmail(email).orElseThrow(
+        long start = System.nanoTime();
+        Optional<User> found = userRepository.findByEmail(email);
+        start = StageTimers.lap(forgotLookupTimer, start);
+        User user = found.orElseThrow(
                 () -> new BusinessException("Email không tồn tại trong hệ thống", 400)
         );
 
@@ -150,9 +252,11 @@ public class AuthService {
             throw new BusinessException("Tài khoản này không hỗ trợ chức năng quên mật khẩu", 400);
         }
 
-        // Sinh và gửi OTP
+        // Sinh OTP và xếp hàng gửi email
         String otp = otpService.generateAndStoreOtp(email, OtpType.FORGOT_PASSWORD);
-        mailService.sendOtpEmail(user.getEmail(), otp, OtpType.FORGOT_PASSWORD);
+        start = StageTimers.lap(forgotOtpTimer, start);
+        mailOutboxService.enqueueOtpEmail(user.getEmail(), otp, OtpType.FORGOT_PASSWORD);
+        StageTimers.lap(forgotEnqueueTimer, start);
     }
 
     /**
@@ -165,7 +269,10 @@ public class AuthService {
 
         String email = request.getEmail();
 
-        User user = userRepository.findByEmail(email).orElseThrow(
+        long start = System.nanoTime();
+        Optional<User> found = userRepository.findByEmail(email);
+        start = StageTimers.lap(verifyForgotLookupTimer, start);
+        User user = found.orElseThrow(
                 () -> new BusinessException("Email không tồn tại trong hệ thống", 400)
         );
 
@@ -174,10 +281,13 @@ public class AuthService {
         }
 
         otpService.verifyOtp(email, request.getOtpCode(), OtpType.FORGOT_PASSWORD);
+        start = StageTimers.lap(verifyForgotOtpTimer, start);
 
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
+        start = StageTimers.lap(verifyForgotHashTimer, start);
 
         userRepository.save(user);
+        StageTimers.lap(verifyForgotSaveTimer, start);
     }
 
     /**
@@ -188,8 +298,6 @@ public class AuthService {
 
         try {
             // Gửi code lên Google để lấy access_token + id_token
-            String tokenUrl = "https://oauth2.googleapis.com/token";
-
             MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
             params.add("code", code);
             params.add("client_id", googleClientId);
@@ -202,7 +310,9 @@ public class AuthService {
 
             HttpEntity<MultiValueMap<String, String>> httpRequest = new HttpEntity<>(params, headers);
 
-            Map tokenResponse = restTemplate.postForObject(tokenUrl, httpRequest, Map.class);
+            long start = System.nanoTime();
+            Map tokenResponse = restTemplate.postForObject(googleTokenUri, httpRequest, Map.class);
+            start = StageTimers.lap(googleExchangeTimer, start);
 
             if (tokenResponse == null || !tokenResponse.containsKey("id_token")) {
                 throw new RuntimeException("Không nhận được id_token từ Google.");
@@ -211,7 +321,8 @@ public class AuthService {
             String idToken = (String) tokenResponse.get("id_token");
 
             // Verify id_token
-            GoogleIdToken.Payload payload = verifyIdToken(idToken);
+            GoogleIdToken.Payload payload = googleIdTokenService.verify(idToken);
+            start = StageTimers.lap(googleVerifyTimer, start);
 
             String email = payload.getEmail();
             String fullName = (String) payload.get("name");
@@ -226,9 +337,11 @@ public class AuthService {
                         .build();
                 return userRepository.save(u);
             });
+            start = StageTimers.lap(googleUpsertTimer, start);
 
             // Tạo JWT
             String jwt = jwtService.generateToken(user);
+            StageTimers.lap(googleSignTimer, start);
             return AuthResponse.builder().token(jwt).build();
 
         } catch (Exception e) {
@@ -238,21 +351,24 @@ public class AuthService {
 
 
     /**
-     * Verify Google ID Token với GsonFactory
+     * Đăng xuất: thu hồi token hiện tại
      */
-    private GoogleIdToken.Payload verifyIdToken(String idTokenString) throws Exception {
-        JsonFactory jsonFactory = GsonFactory.getDefaultInstance();
-        GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(
-                GoogleNetHttpTransport.newTrustedTransport(),
-                jsonFactory
-        ).setAudience(Collections.singletonList(googleClientId))
-                .build();
+    public void logout(Authentication authentication) {
+        tokenRevocationService.revoke(currentToken(authentication));
+    }
+
+    /**
+     * Đăng xuất khỏi mọi thiết bị: thu hồi mọi token đã cấp cho người dùng
+     */
+    public void logoutAll(Authentication authentication) {
+        tokenRevocationService.revokeAll(currentToken(authentication).getSubject());
+    }
 
-        GoogleIdToken idToken = verifier.verify(idTokenString);
-        if (idToken == null) {
-            throw new RuntimeException("id_token không hợp lệ.");
+    private DecodedJWT currentToken(Authentication authentication) {
+        if (authentication == null || !(authentication.getDetails() instanceof DecodedJWT jwt)) {
+            throw new BusinessException("Bạn chưa đăng nhập", 401);
         }
-        return idToken.getPayload();
+        return jwt;
     }
 
     public User validateUser(Authentication authentication) {
@@ -0,0 +1,305 @@
+package com.example.be.service;
+
+import com.example.be.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Lưu ảnh đại diện trên đĩa cục bộ, cột users.avatar chỉ giữ khóa ngắn dạng {@code <22 ký tự>.<ext>}.
+ * File upload được Tomcat ghi thẳng xuống thư mục tạm cùng ổ đĩa rồi đổi tên vào kho, không nằm trên heap;
+ * ảnh thu nhỏ được tạo trên pool nền riêng, chưa có thì phục vụ ảnh gốc.
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AvatarStorageService {
+
+    static Pattern KEY_PATTERN = Pattern.compile("^([A-Za-z0-9_-]{22})\\.(png|jpg|gif)$");
+    static int KEY_BYTES = 16;
+
+    Path root;
+    Path tmpDir;
+    List<Integer> thumbnailSizes;
+    int maxDimension;
+    SecureRandom random = new SecureRandom();
+    ThreadPoolExecutor executor;
+
+    Timer thumbnailTimer;
+    Counter rejectedCounter;
+
+    public AvatarStorageService(
+            MeterRegistry meterRegistry,
+            @Value("${avatar.storage-dir}") String storageDir,
+            @Value("${avatar.thumbnail-sizes}") List<Integer> thumbnailSizes,
+            @Value("${avatar.max-dimension}") int maxDimension,
+            @Value("${avatar.thumbnail.threads}") int threads,
+            @Value("${avatar.thumbnail.queue-capacity}") int queueCapacity) throws IOException {
+        this.root = Path.of(storageDir).toAbsolutePath().normalize();
+        this.tmpDir = Files.createDirectories(root.resolve("tmp"));
+        this.thumbnailSizes = List.copyOf(thumbnailSizes);
+        this.maxDimension = maxDimension;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "avatar-thumbnail-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.thumbnailTimer = meterRegistry.timer("avatar.thumbnail.latency");
+        this.rejectedCounter = meterRegistry.counter("avatar.thumbnail.rejected");
+        Gauge.builder("avatar.thumbnail.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Thư mục tạm cho multipart, nằm cùng ổ đĩa với kho để chuyển file bằng rename.
+     */
+    public Path getTmpDir() {
+        return tmpDir;
+    }
+
+    /**
+     * Lưu file upload và trả về khóa ảnh. Định dạng được xác định từ nội dung file, không tin Content-Type.
+     */
+    public String store(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new BusinessException("File ảnh không được để trống", 400);
+        }
+
+        Path staging = null;
+        try {
+            // transferTo(File) gọi Part.write của Tomcat: file tạm của part được đổi tên sang đường dẫn chưa tồn tại
+            // (cùng ổ đĩa), không copy; overload transferTo(Path) luôn copy qua stream
+            staging = tmpDir.resolve("upload-" + newKey() + ".part");
+            file.transferTo(staging.toFile());
+
+            String extension = probe(staging);
+            String key = newKey() + "." + extension;
+            Path target = resolve(key);
+            Files.createDirectories(target.getParent());
+            move(staging, target);
+            staging = null;
+
+            submitThumbnails(key);
+            return key;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (staging != null) {
+                deleteQuietly(staging);
+            }
+        }
+    }
+
+    /**
+     * Tìm file để phục vụ: ảnh thu nhỏ đúng kích thước nếu đã tạo xong, ngược lại là ảnh gốc.
+     */
+    public Optional<Path> find(String key, int size) {
+        if (!isKey(key)) {
+            return Optional.empty();
+        }
+        if (size > 0) {
+            if (!thumbnailSizes.contains(size)) {
+                throw new BusinessException("Kích thước ảnh không được hỗ trợ", 400);
+            }
+            Path thumbnail = thumbnailPath(key, size);
+            if (Files.isRegularFile(thumbnail)) {
+                return Optional.of(thumbnail);
+            }
+        }
+        Path original = resolve(key);
+        return Files.isRegularFile(original) ? Optional.of(original) : Optional.empty();
+    }
+
+    /**
+     * Xóa ảnh gốc và các ảnh thu nhỏ trên pool nền (ảnh cũ sau khi người dùng đổi avatar).
+     */
+    public void deleteAsync(String key) {
+        if (!isKey(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                deleteQuietly(resolve(key));
+                thumbnailSizes.forEach(size -> deleteQuietly(thumbnailPath(key, size)));
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Không thể lên lịch xóa avatar {}: hàng đợi đầy", key);
+        }
+    }
+
+    public static boolean isKey(String value) {
+        return value != null && KEY_PATTERN.matcher(value).matches();
+    }
+
+    public static String contentType(Path path) {
+        String name = path.getFileName().toString();
+        if (name.endsWith(".png")) {
+            return "image/png";
+        }
+        if (name.endsWith(".gif")) {
+            return "image/gif";
+        }
+        return "image/jpeg";
+    }
+
+    private void submitThumbnails(String key) {
+        try {
+            executor.execute(() -> thumbnailTimer.record(() -> createThumbnails(key)));
+        } catch (RejectedExecutionException e) {
+            // Không tạo được ảnh thu nhỏ thì vẫn phục vụ ảnh gốc
+            rejectedCounter.increment();
+        }
+    }
+
+    private void createThumbnails(String key) {
+        try {
+            BufferedImage source = ImageIO.read(resolve(key).toFile());
+            if (source == null) {
+                return;
+            }
+            String format = key.endsWith(".jpg") ? "jpg" : "png";
+            for (int size : thumbnailSizes) {
+                Path target = thumbnailPath(key, size);
+                Path staging = Files.createTempFile(tmpDir, "thumb-", ".part");
+                try {
+                    ImageIO.write(scale(source, size, format), format, staging.toFile());
+                    move(staging, target);
+                } finally {
+                    deleteQuietly(staging);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Tạo ảnh thu nhỏ cho {} thất bại: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Thu nhỏ để cạnh ngắn bằng {@code size} rồi cắt giữa thành hình vuông.
+     */
+    private BufferedImage scale(BufferedImage source, int size, String format) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int side = Math.min(width, height);
+
+        int type = "jpg".equals(format) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage target = new BufferedImage(size, size, type);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            int x = (width - side) / 2;
+            int y = (height - side) / 2;
+            graphics.drawImage(source, 0, 0, size, size, x, y, x + side, y + side, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Chỉ đọc header để lấy định dạng và kích thước, chặn ảnh quá lớn trước khi giải nén.
+     */
+    private String probe(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new BusinessException("File không phải ảnh hợp lệ", 400);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                String extension = switch (reader.getFormatName().toLowerCase()) {
+                    case "png" -> "png";
+                    case "jpeg", "jpg" -> "jpg";
+                    case "gif" -> "gif";
+                    default -> throw new BusinessException("Chỉ hỗ trợ ảnh PNG, JPEG hoặc GIF", 400);
+                };
+                if (reader.getWidth(0) > maxDimension || reader.getHeight(0) > maxDimension) {
+                    throw new BusinessException("Kích thước ảnh tối đa là " + maxDimension + "px", 400);
+                }
+                return extension;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private Path resolve(String key) {
+        // Chia thư mục con theo 2 ký tự đầu để mỗi thư mục không chứa quá nhiều file
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private Path thumbnailPath(String key, int size) {
+        int dot = key.lastIndexOf('.');
+        String extension = key.endsWith(".jpg") ? ".jpg" : ".png";
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(0, dot) + "-" + size + extension);
+    }
+
+    private String newKey() {
+        byte[] bytes = new byte[KEY_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Không thể xóa {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package com.example.be.service;
 
-import com.example.be.entity.User;
-import com.example.be.enums.Role;
 import com.example.be.exception.BusinessException;
 import com.example.be.repository.UserRepository;
+import com.example.be.repository.projection.UserAuthView;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -21,13 +20,14 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email).orElseThrow(
+        // Chỉ đọc các cột cần cho xác thực
+        UserAuthView user = userRepository.findAuthViewByEmail(email).orElseThrow(
                 () -> new BusinessException("Email không tồn tại trong hệ thống", 404)
         );return org.springframework.security.core.userdetails.User
-                .withUsername(user.getEmail())
-                .password(user.getPassword() != null ? user.getPassword() : "")
-                .roles(user.getRole().name())
-                .disabled(!user.getActive())
+                .withUsername(user.email())
+                .password(user.password() != null ? user.password() : "")
+                .roles(user.role().name())
+                .disabled(!user.active())
                 .build();
     }
 }
@@ -0,0 +1,73 @@
+package com.example.be.service;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifier Google ID token dùng chung, giữ bộ public key trong bộ nhớ và làm mới
+ * trong nền trước khi hết hạn để request đăng nhập không phải chờ tải key.
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class GoogleIdTokenService {
+
+    static long REFRESH_AHEAD_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    GooglePublicKeysManager publicKeysManager;
+    GoogleIdTokenVerifier verifier;
+
+    public GoogleIdTokenService(
+            @Value("${google.client-id}") String googleClientId,
+            @Value("${google.certs-uri}") String certsUri) {
+        this.publicKeysManager = new GooglePublicKeysManager.Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance())
+                .setPublicCertsEncodedUrl(certsUri)
+                .build();
+        this.verifier = new GoogleIdTokenVerifier.Builder(publicKeysManager)
+                .setAudience(Collections.singletonList(googleClientId))
+                .build();
+    }
+
+    /**
+     * Verify Google ID token, trả về payload nếu hợp lệ.
+     */
+    public GoogleIdToken.Payload verify(String idTokenString) throws GeneralSecurityException, IOException {
+        GoogleIdToken idToken = verifier.verify(idTokenString);
+        if (idToken == null) {
+            throw new RuntimeException("id_token không hợp lệ.");
+        }
+        return idToken.getPayload();
+    }
+
+    /**
+     * Làm mới public key khi sắp hết hạn (theo Cache-Control của Google).
+     * Lần chạy đầu tiên ngay sau khi khởi động cũng là lần tải key ban đầu.
+     */
+    @Scheduled(fixedDelayString = "${google.certs-refresh-check-ms}")
+    public void refreshIfExpiring() {
+        if (publicKeysManager.getExpirationTimeMilliseconds() - REFRESH_AHEAD_MILLIS > System.currentTimeMillis()) {
+            return;
+        }
+
+        try {
+            publicKeysManager.refresh();
+        } catch (GeneralSecurityException | IOException e) {
+            // Key cũ vẫn được dùng; lần verify kế tiếp sẽ tự tải lại nếu key đã hết hạn
+            log.warn("Không thể làm mới public key của Google: {}", e.getMessage());
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.example.be.service;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.example.be.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -11,7 +19,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -19,24 +33,122 @@ import java.util.Date;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class JwtService {
 
+    /**
+     * Thời điểm cấp token tính bằng mili giây; {@code iat} chuẩn chỉ có độ chính xác giây nên không đủ để so với mốc
+     * thu hồi (token cấp ngay sau "đăng xuất mọi thiết bị" trong cùng giây sẽ bị chặn nhầm).
+     */
+    public static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+
+    final MeterRegistry meterRegistry;
+
     @Value("${jwt.secret}")
     String jwtSecret;
 
     @Value("${jwt.access-expiration}")
     long jwtAccessExpiration;
 
+    @Value("${jwt.verified-cache.enabled}")
+    boolean verifiedCacheEnabled;
+
+    @Value("${jwt.verified-cache.max-size}")
+    long verifiedCacheMaxSize;
+
+    Algorithm algorithm;
+    JWTVerifier verifier;
+    Cache<String, DecodedJWT> verifiedTokens;
+
+    Timer signTimer;
+    Timer verifyTimer;
+
+    @PostConstruct
+    void init() {
+        // Algorithm và JWTVerifier đều thread-safe nên chỉ cần tạo một lần
+        algorithm = Algorithm.HMAC256(jwtSecret);
+        verifier = JWT.require(algorithm).build();
+
+        signTimer = meterRegistry.timer("jwt.latency", "operation", "sign");
+        verifyTimer = meterRegistry.timer("jwt.latency", "operation", "verify");
+
+        if (verifiedCacheEnabled) {
+            verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(verifiedCacheMaxSize)
+                    .expireAfter(new TokenExpiry())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+        }
+    }
+
     public String generateToken(User user) {
-        return JWT.create()
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        String token = JWT.create()
+                .withJWTId(UUID.randomUUID().toString())
                 .withSubject(user.getEmail())
                 .withClaim("role", user.getRole().name())
                 .withClaim("provider", user.getAuthProvider().name())
-                .withIssuedAt(new Date())
-                .withExpiresAt(new Date(System.currentTimeMillis() + jwtAccessExpiration))
-                .sign(Algorithm.HMAC256(jwtSecret));
+                .withIssuedAt(new Date(now))
+                .withClaim(ISSUED_AT_MILLIS_CLAIM, now)
+                .withExpiresAt(new Date(now + jwtAccessExpiration))
+                .sign(algorithm);
+        signTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
     }
 
     public DecodedJWT verifyToken(String token) {
-        Algorithm algorithm = Algorithm.HMAC256(jwtSecret);
-        return JWT.require(algorithm).build().verify(token);
+        long start = System.nanoTime();
+        DecodedJWT decoded = verify(token);
+        verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return decoded;
+    }
+
+    private DecodedJWT verify(String token) {
+        if (verifiedTokens == null) {
+            return verifier.verify(token);
+        }
+
+        // Token đã được xác thực gần đây → bỏ qua decode, parse JSON và kiểm tra HMAC
+        String key = digest(token);
+        DecodedJWT cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        DecodedJWT decoded = verifier.verify(token);
+        if (decoded.getExpiresAt() != null) {
+            verifiedTokens.put(key, decoded);
+        }
+        return decoded;
+    }
+
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Loại token khỏi cache đúng thời điểm token hết hạn.
+     */
+    private static class TokenExpiry implements Expiry<String, DecodedJWT> {
+
+        @Override
+        public long expireAfterCreate(String key, DecodedJWT value, long currentTime) {
+            long remainingMillis = value.getExpiresAt().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, DecodedJWT value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, DecodedJWT value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
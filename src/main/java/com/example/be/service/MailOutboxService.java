@@ -0,0 +1,51 @@
+package com.example.be.service;
+
+import com.example.be.enums.OtpType;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Đưa email cần gửi vào hàng đợi Redis Stream để worker gửi bất đồng bộ.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class MailOutboxService {
+
+    static final String STREAM_KEY = "MAIL_OUTBOX";
+    static final String CONSUMER_GROUP = "mail-workers";
+    static final String RETRY_KEY = "MAIL_OUTBOX_RETRY";
+    static final String DEAD_LETTER_KEY = "MAIL_OUTBOX_DEAD";
+
+    final RedisTemplate<String, String> redisTemplate;
+    final MailService mailService;
+
+    @Value("${mail.outbox.enabled}")
+    boolean outboxEnabled;
+
+    /**
+     * Xếp hàng email OTP, hoặc gửi trực tiếp nếu outbox bị tắt.
+     */
+    public void enqueueOtpEmail(String email, String otp, OtpType type) {
+        if (!outboxEnabled) {
+            mailService.sendOtpEmail(email, otp, type);
+            return;
+        }
+
+        Map<String, String> job = Map.of(
+                "id", UUID.randomUUID().toString(),
+                "email", email,
+                "otp", otp,
+                "otpType", type.name(),
+                "attempt", "0"
+        );
+        redisTemplate.<String, String>opsForStream().add(STREAM_KEY, job);
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.be.service;
+
+import com.example.be.enums.OtpType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker đọc hàng đợi MAIL_OUTBOX, render template và gửi email theo lô với retry/backoff.
+ * Job thất bại quá số lần cho phép được chuyển sang danh sách dead-letter (đã bỏ mã OTP, giữ tối đa
+ * {@code mail.outbox.dead-letter-max} job mới nhất). Job chỉ được xác nhận sau khi đã gửi xong hoặc đã lưu được
+ * vào hàng retry/dead-letter; nếu không, job vẫn pending và được {@link #reclaimStale()} nhận lại.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "mail.outbox.enabled", havingValue = "true")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class MailOutboxWorker {
+
+    static TypeReference<Map<String, String>> JOB_TYPE = new TypeReference<>() {};
+
+    RedisTemplate<String, String> redisTemplate;
+    StreamOperations<String, String, String> streamOps;
+    MailService mailService;
+    ObjectMapper objectMapper;
+    int workers;
+    int maxAttempts;
+    long initialBackoffMs;
+    long deadLetterMax;
+    Duration claimIdle;
+
+    String consumerName = "worker-" + UUID.randomUUID();
+    ExecutorService executor;
+
+    Counter sentCounter;
+    Counter retriedCounter;
+    Counter deadLetterCounter;
+    Timer sendTimer;
+
+    @NonFinal
+    volatile boolean running = true;
+
+    public MailOutboxWorker(
+            RedisTemplate<String, String> redisTemplate,
+            MailService mailService,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${mail.outbox.workers}") int workers,
+            @Value("${mail.outbox.max-attempts}") int maxAttempts,
+            @Value("${mail.outbox.initial-backoff-ms}") long initialBackoffMs,
+            @Value("${mail.outbox.claim-idle-ms}") long claimIdleMs,
+            @Value("${mail.outbox.dead-letter-max}") long deadLetterMax) {
+        this.redisTemplate = redisTemplate;
+        this.streamOps = redisTemplate.opsForStream();
+        this.mailService = mailService;
+        this.objectMapper = objectMapper;
+        this.workers = workers;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.deadLetterMax = deadLetterMax;
+        this.claimIdle = Duration.ofMillis(claimIdleMs);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "mail-outbox-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.sentCounter = meterRegistry.counter("mail.outbox.delivery", "status", "sent");
+        this.retriedCounter = meterRegistry.counter("mail.outbox.delivery", "status", "retried");
+        this.deadLetterCounter = meterRegistry.counter("mail.outbox.delivery", "status", "dead_letter");
+        this.sendTimer = meterRegistry.timer("mail.outbox.send");
+    }
+
+    @PostConstruct
+    void start() {
+        try {
+            streamOps.createGroup(MailOutboxService.STREAM_KEY, ReadOffset.from("0"), MailOutboxService.CONSUMER_GROUP);
+        } catch (Exception e) {
+            // Group đã tồn tại (BUSYGROUP)
+            log.debug("Consumer group {} đã tồn tại", MailOutboxService.CONSUMER_GROUP);
+        }
+
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::pollLoop);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Chuyển các job đã đến hạn retry trở lại hàng đợi chính.
+     */
+    @Scheduled(fixedDelayString = "${mail.outbox.retry-poll-ms}")
+    public void promoteRetries() {
+        Set<String> due = redisTemplate.opsForZSet()
+                .rangeByScore(MailOutboxService.RETRY_KEY, 0, System.currentTimeMillis(), 0, 100);
+        if (due == null) {
+            return;
+        }
+
+        for (String member : due) {
+            // Chỉ node xóa được member mới được đưa job trở lại hàng đợi
+            Long removed = redisTemplate.opsForZSet().remove(MailOutboxService.RETRY_KEY, member);
+            if (removed != null && removed == 1) {
+                try {
+                    streamOps.add(MailOutboxService.STREAM_KEY, objectMapper.readValue(member, JOB_TYPE));
+                } catch (JsonProcessingException e) {
+                    // Không log nội dung job: có mã OTP
+                    log.error("Không thể đọc job retry", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Nhận lại các job đã được giao cho worker khác nhưng quá lâu chưa xác nhận (worker bị dừng).
+     */
+    @Scheduled(fixedDelayString = "${mail.outbox.claim-poll-ms}")
+    public void reclaimStale() {
+        PendingMessages pending = streamOps.pending(
+                MailOutboxService.STREAM_KEY, MailOutboxService.CONSUMER_GROUP, Range.unbounded(), 100);
+
+        List<RecordId> staleIds = new ArrayList<>();
+        for (PendingMessage message : pending) {
+            if (message.getElapsedTimeSinceLastDelivery().compareTo(claimIdle) > 0) {
+                staleIds.add(message.getId());
+            }
+        }
+        if (staleIds.isEmpty()) {
+            return;
+        }
+
+        processBatch(streamOps.claim(MailOutboxService.STREAM_KEY, MailOutboxService.CONSUMER_GROUP, consumerName,
+                claimIdle, staleIds.toArray(RecordId[]::new)));
+    }
+
+    private void pollLoop() {
+        Consumer consumer = Consumer.from(MailOutboxService.CONSUMER_GROUP, consumerName);
+        StreamReadOptions options = StreamReadOptions.empty().count(10).block(Duration.ofSeconds(2));
+        // read() chỉ có dạng varargs generic: tạo sẵn mảng một lần để lời gọi không sinh mảng generic (unchecked)
+        @SuppressWarnings("unchecked")
+        StreamOffset<String>[] offsets = (StreamOffset<String>[]) new StreamOffset<?>[]{
+                StreamOffset.create(MailOutboxService.STREAM_KEY, ReadOffset.lastConsumed())
+        };
+
+        while (running) {
+            try {
+                List<MapRecord<String, String, String>> records = streamOps.read(consumer, options, offsets);
+                if (records != null && !records.isEmpty()) {
+                    processBatch(records);
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Lỗi khi đọc hàng đợi email: {}", e.getMessage());
+                sleepQuietly(1000);
+            }
+        }
+    }
+
+    /**
+     * Gửi một lô email qua cùng một kết nối SMTP, sau đó xác nhận từng job theo kết quả.
+     */
+    private void processBatch(List<MapRecord<String, String, String>> records) {
+        Map<MimeMessage, MapRecord<String, String, String>> messages = new LinkedHashMap<>();
+        for (MapRecord<String, String, String> record : records) {
+            Map<String, String> job = record.getValue();
+            try {
+                messages.put(mailService.buildOtpEmail(job.get("email"), job.get("otp"), OtpType.valueOf(job.get("otpType"))), record);
+            } catch (Exception e) {
+                complete(record, e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failed = Map.of();
+        Exception batchError = null;
+        long start = System.nanoTime();
+        try {
+            mailService.send(messages.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            failed = e.getFailedMessages();
+            batchError = failed.isEmpty() ? e : null;
+        } catch (Exception e) {
+            batchError = e;
+        }
+        sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        for (Map.Entry<MimeMessage, MapRecord<String, String, String>> entry : messages.entrySet()) {
+            complete(entry.getValue(), batchError != null ? batchError : failed.get(entry.getKey()));
+        }
+    }
+
+    private void complete(MapRecord<String, String, String> record, Exception error) {
+        try {
+            if (error == null) {
+                sentCounter.increment();
+            } else {
+                handleFailure(record.getValue(), error);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Chưa lưu được vào hàng retry/dead-letter → không xác nhận, để reclaimStale nhận lại job
+            log.error("Không thể lưu job email {} đến {} sau khi gửi thất bại, giữ lại để thử lại",
+                    record.getId(), record.getValue().get("email"), e);
+            return;
+        }
+        streamOps.acknowledge(MailOutboxService.STREAM_KEY, MailOutboxService.CONSUMER_GROUP, record.getId());
+        streamOps.delete(MailOutboxService.STREAM_KEY, record.getId());
+    }
+
+    private void handleFailure(Map<String, String> job, Exception cause) throws JsonProcessingException {
+        int attempt = Integer.parseInt(job.getOrDefault("attempt", "0")) + 1;
+        Map<String, String> next = new HashMap<>(job);
+        next.put("attempt", String.valueOf(attempt));
+
+        if (attempt >= maxAttempts) {
+            // Dead-letter chỉ để điều tra: không giữ mã OTP, và chỉ giữ các job mới nhất
+            next.remove("otp");
+            next.put("error", String.valueOf(cause.getMessage()));
+            redisTemplate.opsForList().leftPush(MailOutboxService.DEAD_LETTER_KEY, objectMapper.writeValueAsString(next));
+            redisTemplate.opsForList().trim(MailOutboxService.DEAD_LETTER_KEY, 0, deadLetterMax - 1);
+            deadLetterCounter.increment();
+            log.error("Gửi email đến {} thất bại sau {} lần, chuyển vào dead-letter", job.get("email"), attempt);
+            return;
+        }
+
+        // Backoff theo cấp số nhân: initial, 2x, 4x, ...
+        long backoffMs = initialBackoffMs << (attempt - 1);
+        redisTemplate.opsForZSet().add(MailOutboxService.RETRY_KEY, objectMapper.writeValueAsString(next),
+                System.currentTimeMillis() + backoffMs);
+        retriedCounter.increment();
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,30 +2,68 @@ package com.example.be.service;
 
 import com.example.be.enums.OtpType;
 import com.example.be.exception.BusinessException;
+import com.example.be.utils.StageTimers;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.mail.internet.MimeMessage;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import java.util.concurrent.TimeUnit;
+
 @Service
 @RequiredArgsConstructor
-@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@FieldDefaults(level = AccessLevel.PRIVATE)
 public class MailService {
 
-    JavaMailSender mailSender;
-    TemplateEngine templateEngine;
+    final JavaMailSender mailSender;
+    final ObjectProvider<PooledMailSender> pooledMailSenderProvider;
+    final TemplateEngine templateEngine;
+    final MeterRegistry meterRegistry;
+
+    // null khi mail.pool.enabled=false
+    PooledMailSender pooledMailSender;
+
+    Timer renderTimer;
+    Timer buildTimer;
+    Timer sendTimer;
 
     private static final int OTP_EXPIRE_MINUTES = 15;
 
+    @PostConstruct
+    void init() {
+        pooledMailSender = pooledMailSenderProvider.getIfAvailable();
+        renderTimer = meterRegistry.timer("mail.stage.latency", "stage", "render");
+        buildTimer = meterRegistry.timer("mail.stage.latency", "stage", "build");
+        sendTimer = meterRegistry.timer("mail.stage.latency", "stage", "send");
+    }
+
     /**
      * Gửi email chứa mã OTP cho người dùng.
      */
     public void sendOtpEmail(String email, String otp, OtpType type) {
+        MimeMessage mimeMessage = buildOtpEmail(email, otp, type);
+
+        try {
+            send(mimeMessage);
+        } catch (Exception e) {
+            throw new BusinessException("Gửi email đến " + email + " thất bại", 500);
+        }
+    }
+
+    /**
+     * Render template và tạo email chứa mã OTP (chưa gửi).
+     */
+    public MimeMessage buildOtpEmail(String email, String otp, OtpType type) {
         // Lấy mục đích OTP theo loại
         String purposeVi = type.getDisplayName();
         String subject = "Mã xác thực (" + purposeVi + ") của bạn";
@@ -37,16 +75,37 @@ public class MailService {
         context.setVariable("otpPurpose", purposeVi);
 
         // Sinh nội dung email HTML từ template Thymeleaf
+        long start = System.nanoTime();
         String htmlContent = templateEngine.process("otp-email", context);
+        start = StageTimers.lap(renderTimer, start);
+
+        MimeMessage mimeMessage = buildHtmlEmail(email, subject, htmlContent);
+        StageTimers.lap(buildTimer, start);
+        return mimeMessage;
+    }
 
-        // Gửi email HTML
-        sendHtmlEmail(email, subject, htmlContent);
+    /**
+     * Gửi nhiều email, dùng chung một kết nối SMTP khi pool được bật.
+     * Email gửi lỗi được trả về trong {@link MailSendException#getFailedMessages()}.
+     */
+    public void send(MimeMessage... mimeMessages) {
+        long start = System.nanoTime();
+        try {
+            if (pooledMailSender != null) {
+                pooledMailSender.send(mimeMessages);
+            } else {
+                mailSender.send(mimeMessages);
+            }
+        } finally {
+            // Lần gửi lỗi vẫn được đo: SMTP chậm thường kết thúc bằng timeout
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
     /**
-     * Gửi email HTML cho người nhận.
+     * Tạo email HTML cho người nhận.
      */
-    private void sendHtmlEmail(String email, String subject, String htmlContent) {
+    private MimeMessage buildHtmlEmail(String email, String subject, String htmlContent) {
         // Kiểm tra đầu vào hợp lệ
         if (email == null || subject == null || htmlContent == null) {
             throw new BusinessException("Email, tiêu đề hoặc nội dung email không hợp lệ", 400);
@@ -62,11 +121,10 @@ public class MailService {
             helper.setSubject(subject);
             helper.setText(htmlContent, true);
 
-            // Gửi email
-            mailSender.send(mimeMessage);
+            return mimeMessage;
 
         } catch (Exception e) {
-            throw new BusinessException("Gửi email đến " + email + " thất bại", 500);
+            throw new BusinessException("Tạo email gửi đến " + email + " thất bại", 500);
         }
     }
 }
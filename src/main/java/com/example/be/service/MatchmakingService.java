@@ -0,0 +1,228 @@
+package com.example.be.service;
+
+import com.example.be.dto.response.MatchmakingResponse;
+import com.example.be.enums.MatchmakingStatus;
+import com.example.be.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ghép bàn 4 người theo mức cược. Mỗi mức cược là một ZSET trong Redis (score = thời điểm vào hàng),
+ * vào/rời hàng là một lần gọi script, không khóa. Tick định kỳ trên mọi node lấy từng lô người chờ lâu nhất và
+ * xếp bàn bằng một script nguyên tử, nên hai node không thể xếp cùng một người.
+ * Người chơi được ghép nhận id phòng qua {@link #getStatus} rồi vào phòng bằng WebSocket.
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class MatchmakingService {
+
+    static String QUEUE_PREFIX = "MM:QUEUE:";
+    static String PLAYER_PREFIX = "MM:PLAYER:";
+    static String ROOM_SEQUENCE_KEY = "MM:ROOM_SEQ";
+    static int TABLE_SIZE = 4;
+
+    // Phải khớp với RoomManager.isMatchedRoom để phòng chỉ nhận đúng người đã được xếp
+    static String ROOM_PREFIX = "m";
+
+    static RedisScript<List<Object>> JOIN_SCRIPT = listScript("scripts/matchmaking-join.lua");
+    static RedisScript<Long> LEAVE_SCRIPT = RedisScript.of(new ClassPathResource("scripts/matchmaking-leave.lua"), Long.class);
+    static RedisScript<List<Object>> MATCH_SCRIPT = listScript("scripts/matchmaking-match.lua");
+
+    static long JOIN_WAITING = 1;
+
+    RedisTemplate<String, String> redisTemplate;
+    List<Long> stakes;
+    int batchSize;
+    int maxBatchesPerTick;
+    long ticketTtlSeconds;
+    long matchTtlSeconds;
+
+    Timer joinTimer;
+    Timer tickTimer;
+    Timer waitTimer;
+    Counter tableCounter;
+
+    public MatchmakingService(
+            RedisTemplate<String, String> redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${matchmaking.stakes}") List<Long> stakes,
+            @Value("${matchmaking.batch-size}") int batchSize,
+            @Value("${matchmaking.max-batches-per-tick}") int maxBatchesPerTick,
+            @Value("${matchmaking.ticket-ttl-seconds}") long ticketTtlSeconds,
+            @Value("${matchmaking.match-ttl-seconds}") long matchTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.stakes = List.copyOf(stakes);
+        // Lô luôn là bội của 4 để không cắt ngang một bàn
+        this.batchSize = Math.max(TABLE_SIZE, batchSize - batchSize % TABLE_SIZE);
+        this.maxBatchesPerTick = maxBatchesPerTick;
+        this.ticketTtlSeconds = ticketTtlSeconds;
+        this.matchTtlSeconds = matchTtlSeconds;
+
+        this.joinTimer = meterRegistry.timer("matchmaking.redis.latency", "operation", "join");
+        this.tickTimer = meterRegistry.timer("matchmaking.tick.latency");
+        this.waitTimer = meterRegistry.timer("matchmaking.wait");
+        this.tableCounter = meterRegistry.counter("matchmaking.tables");
+    }
+
+    /**
+     * Vào hàng chờ; đang chờ ở mức cược khác thì chuyển hàng, vào lại cùng hàng giữ nguyên vị trí.
+     */
+    public MatchmakingResponse join(String email, long stake) {
+        if (!stakes.contains(stake)) {
+            throw new BusinessException("Mức cược không hợp lệ", 400);
+        }
+
+        long start = System.nanoTime();
+        List<Object> result = redisTemplate.execute(
+                JOIN_SCRIPT,
+                List.of(playerKey(email), queueKey(stake)),
+                email,
+                String.valueOf(stake),
+                QUEUE_PREFIX,
+                String.valueOf(ticketTtlSeconds)
+        );
+        joinTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (result == null || result.size() != 2) {
+            throw new BusinessException("Không thể vào hàng chờ", 500);
+        }
+        if (toLong(result.get(0)) == JOIN_WAITING) {
+            return waiting(stake, toLong(result.get(1)));
+        }
+        return matched(String.valueOf(result.get(1)));
+    }
+
+    /**
+     * Rời hàng chờ, hoặc bỏ bàn đã ghép để có thể vào hàng lại.
+     */
+    public void leave(String email) {
+        redisTemplate.execute(LEAVE_SCRIPT, List.of(playerKey(email)), email, QUEUE_PREFIX);
+    }
+
+    public MatchmakingResponse getStatus(String email) {
+        List<Object> state = redisTemplate.opsForHash().multiGet(playerKey(email), List.of("s", "r"));
+        if (state.get(1) != null) {
+            return matched((String) state.get(1));
+        }
+        if (state.get(0) == null) {
+            return MatchmakingResponse.builder().status(MatchmakingStatus.IDLE).build();
+        }
+        long stake = Long.parseLong((String) state.get(0));
+        Long position = redisTemplate.opsForZSet().rank(queueKey(stake), email);
+        return waiting(stake, position);
+    }
+
+    /**
+     * Người chơi có đang được xếp vào phòng {@code room} không (trạng thái hết hạn sau {@code match-ttl-seconds}).
+     */
+    public boolean isSeatedIn(String email, String room) {
+        return room.equals(redisTemplate.opsForHash().get(playerKey(email), "r"));
+    }
+
+    @Scheduled(fixedDelayString = "${matchmaking.tick-ms}")
+    void tick() {
+        try {
+            match();
+        } catch (RuntimeException e) {
+            log.warn("Lượt ghép bàn lỗi: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Một tick: với mỗi mức cược, xếp bàn theo lô cho tới khi hàng chờ còn ít hơn một lô đầy
+     * hoặc đạt {@code max-batches-per-tick} (để tick không chiếm Redis quá lâu lúc cao điểm).
+     */
+    public List<MatchedTable> match() {
+        long start = System.nanoTime();
+        List<MatchedTable> tables = new ArrayList<>();
+        for (long stake : stakes) {
+            for (int batch = 0; batch < maxBatchesPerTick; batch++) {
+                List<Object> result = redisTemplate.execute(
+                        MATCH_SCRIPT,
+                        List.of(queueKey(stake), ROOM_SEQUENCE_KEY),
+                        String.valueOf(batchSize),
+                        String.valueOf(stake),
+                        PLAYER_PREFIX,
+                        ROOM_PREFIX + stake + "-",
+                        String.valueOf(matchTtlSeconds)
+                );
+                int seated = collect(stake, result, tables);
+                if (seated < batchSize) {
+                    break;
+                }
+            }
+        }
+        tickTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return tables;
+    }
+
+    private int collect(long stake, List<?> result, List<MatchedTable> tables) {
+        if (result == null) {
+            return 0;
+        }
+        int fields = 1 + 2 * TABLE_SIZE;
+        for (int offset = 0; offset + fields <= result.size(); offset += fields) {
+            List<String> players = new ArrayList<>(TABLE_SIZE);
+            for (int seat = 0; seat < TABLE_SIZE; seat++) {
+                players.add(String.valueOf(result.get(offset + 1 + 2 * seat)));
+                waitTimer.record(toLong(result.get(offset + 2 + 2 * seat)), TimeUnit.MILLISECONDS);
+            }
+            tables.add(new MatchedTable(String.valueOf(result.get(offset)), stake, players));
+            tableCounter.increment();
+        }
+        return result.size() / fields * TABLE_SIZE;
+    }
+
+    private static MatchmakingResponse waiting(long stake, Long position) {
+        return MatchmakingResponse.builder()
+                .status(MatchmakingStatus.WAITING)
+                .stake(stake)
+                .position(position)
+                .build();
+    }
+
+    private static MatchmakingResponse matched(String room) {
+        return MatchmakingResponse.builder()
+                .status(MatchmakingStatus.MATCHED)
+                .room(room)
+                .build();
+    }
+
+    /**
+     * Script trả về mảng lẫn số và chuỗi; Class của List không mang kiểu phần tử nên phải ép kiểu.
+     */
+    @SuppressWarnings("unchecked")
+    private static RedisScript<List<Object>> listScript(String path) {
+        return RedisScript.of(new ClassPathResource(path), (Class<List<Object>>) (Class<?>) List.class);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
+
+    static String queueKey(long stake) {
+        return QUEUE_PREFIX + stake;
+    }
+
+    static String playerKey(String email) {
+        return PLAYER_PREFIX + email;
+    }
+
+    public record MatchedTable(String room, long stake, List<String> players) {
+    }
+}
@@ -1,176 +1,204 @@
 package com.example.be.service;
 
-import com.example.be.dto.request.RegisterRequest;
 import com.example.be.enums.OtpType;
 import com.example.be.exception.BusinessException;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.be.utils.PendingRegistrationCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.AccessLevel;
-import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.util.Random;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * OTP và dữ liệu đăng ký chờ xác minh nằm chung một hash Redis cho mỗi email + loại OTP:
+ * field {@code s} là trạng thái nén 17 byte (OTP, hạn, số lần sai, khóa, cooldown), field {@code r} là dữ liệu đăng ký
+ * nhị phân (xem {@link PendingRegistrationCodec}). Mọi thay đổi trạng thái đi qua script Lua.
+ */
 @Service
-@RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class OtpService {
 
     RedisTemplate<String, String> redisTemplate;
-    ObjectMapper objectMapper;
+
+    Timer precheckTimer;
+    Timer issueTimer;
+    Timer verifyTimer;
+    Timer loadPendingTimer;
 
     static int OTP_EXPIRE_MINUTES = 15;
     static int MAX_OTP_ATTEMPTS = 5;
     static int LOCK_DURATION_MINUTES = 30;
     static int COOLDOWN_MINUTES = 1;
 
+    static SecureRandom RANDOM = new SecureRandom();
+
+    static RedisScript<Long> ISSUE_SCRIPT = RedisScript.of(new ClassPathResource("scripts/otp-issue.lua"), Long.class);
+    static RedisScript<Long> VERIFY_SCRIPT = RedisScript.of(new ClassPathResource("scripts/otp-verify.lua"), Long.class);
+    static RedisSerializer<Long> LONG_RESULT = new GenericToStringSerializer<>(Long.class);
+
+    static byte[] STATE_FIELD = "s".getBytes(StandardCharsets.US_ASCII);
+    static byte[] REGISTRATION_FIELD = "r".getBytes(StandardCharsets.US_ASCII);
+
+    // Vị trí trong trạng thái nén '>IIBII': otp(4) hạn(4) số lần sai(1) khóa đến(4) cooldown đến(4)
+    static int STATE_SIZE = 17;
+    static int LOCKED_UNTIL_OFFSET = 9;
+    static int COOLDOWN_UNTIL_OFFSET = 13;
+
+    static long ISSUE_LOCKED = 1;
+    static long ISSUE_COOLDOWN = 2;
+
+    static long VERIFY_OK = 0;
+    static long VERIFY_LOCKED = 1;
+    static long VERIFY_JUST_LOCKED = 3;
+
+    public OtpService(RedisTemplate<String, String> redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+
+        this.precheckTimer = meterRegistry.timer("otp.redis.latency", "operation", "precheck");
+        this.issueTimer = meterRegistry.timer("otp.redis.latency", "operation", "issue");
+        this.verifyTimer = meterRegistry.timer("otp.redis.latency", "operation", "verify");
+        this.loadPendingTimer = meterRegistry.timer("otp.redis.latency", "operation", "load_pending");
+    }
+
     /**
      * Tạo và lưu OTP vào Redis cho email và loại OTP tương ứng.
+     * Kiểm tra khóa, cooldown và ghi OTP trong một script Lua (một round trip, nguyên tử).
      */
     public String generateAndStoreOtp(String email, OtpType type) {
-        String lockKey = getLockKey(email, type);
+        return issue(email, type, null);
+    }
 
-        // Kiểm tra nếu email đang bị khóa tạm thời
-        String lockedUntilStr = redisTemplate.opsForValue().get(lockKey);
-        if (lockedUntilStr != null && LocalDateTime.parse(lockedUntilStr).isAfter(LocalDateTime.now())) {
-            throw new BusinessException("Email đã bị khóa tạm thời do nhập sai OTP quá nhiều lần. Vui lòng thử lại sau.", 403);
+    /**
+     * Tạo OTP đăng ký và lưu dữ liệu đăng ký chờ xác minh trong cùng một lần gọi script.
+     * Dữ liệu chỉ được ghi (đè) khi OTP thực sự được cấp.
+     */
+    public String generateRegistrationOtp(String email, PendingRegistration registration) {
+        return issue(email, OtpType.REGISTER, PendingRegistrationCodec.encode(registration));
+    }
+
+    /**
+     * Kiểm tra sớm khóa/cooldown bằng một lệnh HGET, để request bị từ chối không tốn công việc đắt (BCrypt).
+     * Script cấp OTP vẫn kiểm tra lại một cách nguyên tử.
+     */
+    public void ensureCanIssue(String email, OtpType type) {
+        long start = System.nanoTime();
+        byte[] key = bytes(getStateKey(email, type));
+        byte[] state = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.hashCommands().hGet(key, STATE_FIELD));
+        precheckTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (state == null || state.length != STATE_SIZE) {
+            return;
         }
 
-        // Kiểm tra thời gian chờ giữa các lần yêu cầu OTP
-        String otpRequestKey = getOtpRequestKey(email, type);
-        String lastRequestTimeStr = redisTemplate.opsForValue().get(otpRequestKey);
-        if (lastRequestTimeStr != null && LocalDateTime.parse(lastRequestTimeStr)
-                .plusMinutes(COOLDOWN_MINUTES).isAfter(LocalDateTime.now())) {
-            throw new BusinessException("Bạn chỉ có thể yêu cầu mã OTP sau mỗi " + COOLDOWN_MINUTES + " phút. Vui lòng thử lại sau.", 400);
+        ByteBuffer buffer = ByteBuffer.wrap(state);
+        long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        if (Integer.toUnsignedLong(buffer.getInt(LOCKED_UNTIL_OFFSET)) > now) {
+            rejectIssue(ISSUE_LOCKED);
+        }
+        if (Integer.toUnsignedLong(buffer.getInt(COOLDOWN_UNTIL_OFFSET)) > now) {
+            rejectIssue(ISSUE_COOLDOWN);
         }
+    }
 
+    private String issue(String email, OtpType type, byte[] registration) {
         // Sinh ngẫu nhiên mã OTP gồm 6 chữ số
-        String otp = String.valueOf(new Random().nextInt(900000) + 100000);
-
-        // Xóa OTP và số lần thử cũ (nếu có)
-        redisTemplate.delete(getOtpKey(email, type));
-        redisTemplate.delete(getAttemptKey(email, type));
+        String otp = String.valueOf(RANDOM.nextInt(900000) + 100000);
 
-        // Lưu OTP mới vào Redis và thiết lập thời gian hết hạn
-        redisTemplate.opsForValue().set(getOtpKey(email, type), otp, OTP_EXPIRE_MINUTES, TimeUnit.MINUTES);
+        byte[] otpBytes = bytes(otp);
+        byte[] otpTtl = bytes(String.valueOf(TimeUnit.MINUTES.toSeconds(OTP_EXPIRE_MINUTES)));
+        byte[] cooldownTtl = bytes(String.valueOf(TimeUnit.MINUTES.toSeconds(COOLDOWN_MINUTES)));
+        Object[] args = registration != null
+                ? new Object[]{otpBytes, otpTtl, cooldownTtl, registration}
+                : new Object[]{otpBytes, otpTtl, cooldownTtl};
 
-        // Khởi tạo số lần nhập sai OTP = 0
-        redisTemplate.opsForValue().set(getAttemptKey(email, type), "0", OTP_EXPIRE_MINUTES, TimeUnit.MINUTES);
+        long start = System.nanoTime();
+        Long result = redisTemplate.execute(ISSUE_SCRIPT, RedisSerializer.byteArray(), LONG_RESULT, List.of(getStateKey(email, type)), args);
+        issueTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
-        // Lưu thời điểm yêu cầu OTP để kiểm soát cooldown
-        redisTemplate.opsForValue().set(otpRequestKey, LocalDateTime.now().toString(), 1, TimeUnit.MINUTES);
+        if (result == null) {
+            throw new BusinessException("Không thể tạo mã OTP.", 500);
+        }
+        rejectIssue(result);
 
         return otp;
     }
 
+    private static void rejectIssue(long result) {
+        if (result == ISSUE_LOCKED) {
+            throw new BusinessException("Email đã bị khóa tạm thời do nhập sai OTP quá nhiều lần. Vui lòng thử lại sau.", 403);
+        }
+        if (result == ISSUE_COOLDOWN) {
+            throw new BusinessException("Bạn chỉ có thể yêu cầu mã OTP sau mỗi " + COOLDOWN_MINUTES + " phút. Vui lòng thử lại sau.", 400);
+        }
+    }
+
     /**
      * Xác minh mã OTP người dùng nhập vào.
+     * Kiểm tra khóa, so khớp, đếm số lần sai và khóa tạm thời trong một script Lua.
      */
     public void verifyOtp(String email, String otpInput, OtpType type) {
-        String otpKey = getOtpKey(email, type);
-        String attemptKey = getAttemptKey(email, type);
-        String lockKey = getLockKey(email, type);
-
-        // Kiểm tra nếu tài khoản đang bị khóa tạm thời
-        String lockedUntilStr = redisTemplate.opsForValue().get(lockKey);
-        if (lockedUntilStr != null) {
-            LocalDateTime lockedUntil = LocalDateTime.parse(lockedUntilStr);
-            if (lockedUntil.isAfter(LocalDateTime.now())) {
-                throw new BusinessException("Bạn đã nhập sai OTP quá nhiều lần. Email đang bị khóa tạm thời.", 403);
-            } else {
-                redisTemplate.delete(lockKey);
-            }
+        long start = System.nanoTime();
+        Long result = redisTemplate.execute(
+                VERIFY_SCRIPT,
+                List.of(getStateKey(email, type)),
+                otpInput,
+                String.valueOf(MAX_OTP_ATTEMPTS),
+                String.valueOf(TimeUnit.MINUTES.toSeconds(LOCK_DURATION_MINUTES)),
+                String.valueOf(TimeUnit.MINUTES.toSeconds(OTP_EXPIRE_MINUTES))
+        );
+        verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (result == null) {
+            throw new BusinessException("Không thể xác minh mã OTP.", 500);
         }
-
-        // Kiểm tra OTP có khớp không
-        String cachedOtp = redisTemplate.opsForValue().get(otpKey);
-        if (cachedOtp != null && cachedOtp.equals(otpInput)) {
-            // Xác thực thành công → xóa OTP và dữ liệu liên quan
-            redisTemplate.delete(otpKey);
-            redisTemplate.delete(attemptKey);
-            redisTemplate.delete(lockKey);
+        if (result == VERIFY_OK) {
             return;
         }
-
-        // Nếu sai, tăng số lần thử
-        String attemptVal = redisTemplate.opsForValue().get(attemptKey);
-        int attempts = attemptVal == null ? 1 : Integer.parseInt(attemptVal) + 1;
-
-        // Nếu vượt quá số lần cho phép → khóa tạm thời
-        if (attempts >= MAX_OTP_ATTEMPTS) {
-            LocalDateTime lockUntil = LocalDateTime.now().plusMinutes(LOCK_DURATION_MINUTES);
-            redisTemplate.opsForValue().set(lockKey, lockUntil.toString(), LOCK_DURATION_MINUTES, TimeUnit.MINUTES);
-            redisTemplate.delete(attemptKey);
+        if (result == VERIFY_LOCKED) {
+            throw new BusinessException("Bạn đã nhập sai OTP quá nhiều lần. Email đang bị khóa tạm thời.", 403);
+        }
+        if (result == VERIFY_JUST_LOCKED) {
             throw new BusinessException("Bạn đã nhập sai OTP quá nhiều lần. Tài khoản tạm thời bị khóa.", 403);
         }
-
-        // Cập nhật lại số lần nhập sai
-        redisTemplate.opsForValue().set(attemptKey, String.valueOf(attempts), OTP_EXPIRE_MINUTES, TimeUnit.MINUTES);
         throw new BusinessException("Mã OTP không hợp lệ hoặc đã hết hạn.", 400);
     }
 
-    /**
-     * Lưu thông tin đăng ký tạm thời vào Redis (chờ xác minh OTP).
-     */
-    public void storePendingRegistration(String email, RegisterRequest request) {
-        try {
-            String key = getRegistrationKey(email);
-
-            // Lưu thông tin đăng ký tạm thời vào Redis (Ghi đè nếu đã tồn tại)
-            String json = objectMapper.writeValueAsString(request);
-
-            // Luôn cập nhật thông tin mới nhất
-            redisTemplate.opsForValue().set(
-                    key,
-                    json,
-                    OTP_EXPIRE_MINUTES,
-                    TimeUnit.MINUTES
-            );
-        } catch (JsonProcessingException e) {
-            throw new BusinessException("Không thể lưu thông tin đăng ký.", 500);
-        }
-    }
-
     /**
      * Lấy thông tin đăng ký tạm thời từ Redis.
      */
-    public RegisterRequest getPendingRegistration(String email) {
-        try {
-            String json = redisTemplate.opsForValue().get(getRegistrationKey(email));
-            return json != null ? objectMapper.readValue(json, RegisterRequest.class) : null;
-        } catch (JsonProcessingException e) {
-            throw new BusinessException("Không thể đọc dữ liệu đăng ký tạm thời.", 500);
-        }
+    public PendingRegistration getPendingRegistration(String email) {
+        long start = System.nanoTime();
+        byte[] key = bytes(getStateKey(email, OtpType.REGISTER));
+        byte[] value = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.hashCommands().hGet(key, REGISTRATION_FIELD));
+        PendingRegistration registration = value != null ? PendingRegistrationCodec.decode(value) : null;
+        loadPendingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return registration;
     }
 
     /**
      * Xóa dữ liệu đăng ký tạm thời sau khi xác minh thành công.
      */
     public void deletePendingRegistration(String email) {
-        redisTemplate.delete(getRegistrationKey(email));
-    }
-
-    private String getOtpKey(String email, OtpType type) {
-        return "OTP:" + type.name() + ":" + email;
-    }
-
-    private String getAttemptKey(String email, OtpType type) {
-        return "OTP_ATTEMPT:" + type.name() + ":" + email;
-    }
-
-    private String getLockKey(String email, OtpType type) {
-        return "OTP_LOCK:" + type.name() + ":" + email;
+        byte[] key = bytes(getStateKey(email, OtpType.REGISTER));
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.hashCommands().hDel(key, REGISTRATION_FIELD));
     }
 
-    private String getOtpRequestKey(String email, OtpType type) {
-        return "OTP_REQUEST:" + type.name() + ":" + email;
+    static String getStateKey(String email, OtpType type) {
+        return "OTP_STATE:" + type.name() + ":" + email;
     }
 
-    private String getRegistrationKey(String email) {
-        return "PENDING_REGISTRATION:" + email;
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
     }
 }
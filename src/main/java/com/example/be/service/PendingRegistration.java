@@ -0,0 +1,7 @@
+package com.example.be.service;
+
+/**
+ * Dữ liệu đăng ký chờ xác minh OTP. Mật khẩu đã được hash BCrypt, không lưu mật khẩu gốc.
+ */
+public record PendingRegistration(String fullName, String encodedPassword) {
+}
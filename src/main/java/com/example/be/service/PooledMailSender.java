@@ -0,0 +1,209 @@
+package com.example.be.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailSendException;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool các kết nối SMTP đã xác thực, giữ kết nối sống và dùng lại giữa các lần gửi
+ * để không phải lặp lại connect/STARTTLS/AUTH cho từng email.
+ */
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PooledMailSender implements AutoCloseable {
+
+    Session session;
+    String protocol;
+    String host;
+    int port;
+    String username;
+    String password;
+
+    long maxIdleNanos;
+    long validateAfterNanos;
+    Duration borrowTimeout;
+
+    Semaphore permits;
+    BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    ScheduledExecutorService evictor;
+
+    public PooledMailSender(
+            Session session, String protocol, String host, int port, String username, String password,
+            int maxConnections, Duration maxIdle, Duration validateAfter, Duration borrowTimeout) {
+        this.session = session;
+        this.protocol = protocol;
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.maxIdleNanos = maxIdle.toNanos();
+        this.validateAfterNanos = validateAfter.toNanos();
+        this.borrowTimeout = borrowTimeout;
+        this.permits = new Semaphore(maxConnections, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "smtp-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, maxIdle.toMillis() / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gửi một hoặc nhiều email qua cùng một kết nối lấy từ pool.
+     * Email gửi lỗi được trả về trong {@link MailSendException#getFailedMessages()}.
+     */
+    public void send(MimeMessage... messages) {
+        PooledConnection connection = borrow();
+        boolean broken = false;
+        Map<Object, Exception> failed = new LinkedHashMap<>();
+
+        try {
+            for (MimeMessage message : messages) {
+                try {
+                    if (broken) {
+                        // Kết nối bị ngắt giữa chừng → mở lại rồi gửi tiếp các email còn lại
+                        connection.reconnect();
+                        broken = false;
+                    }
+                    if (message.getSentDate() == null) {
+                        message.setSentDate(new Date());
+                    }
+                    message.saveChanges();
+                    connection.transport.sendMessage(message, message.getAllRecipients());
+                } catch (MessagingException e) {
+                    failed.put(message, e);
+                    broken = !connection.transport.isConnected();
+                }
+            }
+        } finally {
+            release(connection, broken);
+        }
+
+        if (!failed.isEmpty()) {
+            throw new MailSendException(failed);
+        }
+    }
+
+    /**
+     * Số kết nối đang rảnh trong pool.
+     */
+    public int idleCount() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            connection.closeQuietly();
+        }
+    }
+
+    private PooledConnection borrow() {
+        try {
+            if (!permits.tryAcquire(borrowTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new MailSendException("Hết thời gian chờ kết nối SMTP trong pool");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Bị gián đoạn khi chờ kết nối SMTP", e);
+        }
+
+        try {
+            PooledConnection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (isUsable(connection)) {
+                    return connection;
+                }
+                connection.closeQuietly();
+            }
+            return open();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void release(PooledConnection connection, boolean broken) {
+        if (broken) {
+            connection.closeQuietly();
+        } else {
+            connection.lastUsedNanos = System.nanoTime();
+            // LIFO: kết nối vừa dùng được lấy lại trước, kết nối nguội dồn về cuối để bị loại
+            idle.offerFirst(connection);
+        }
+        permits.release();
+    }
+
+    private boolean isUsable(PooledConnection connection) {
+        long idleNanos = System.nanoTime() - connection.lastUsedNanos;
+        if (idleNanos > maxIdleNanos) {
+            return false;
+        }
+        // Chỉ gửi NOOP kiểm tra khi kết nối đã rảnh một thời gian
+        return idleNanos < validateAfterNanos || connection.transport.isConnected();
+    }
+
+    private PooledConnection open() {
+        try {
+            Transport transport = session.getTransport(protocol);
+            transport.connect(host, port, username, password);
+            return new PooledConnection(transport);
+        } catch (MessagingException e) {
+            throw new MailSendException("Không thể kết nối đến máy chủ SMTP " + host + ":" + port, e);
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        PooledConnection oldest;
+        while ((oldest = idle.peekLast()) != null && now - oldest.lastUsedNanos > maxIdleNanos) {
+            if (idle.removeLastOccurrence(oldest)) {
+                oldest.closeQuietly();
+            }
+        }
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private class PooledConnection {
+        Transport transport;
+        long lastUsedNanos = System.nanoTime();
+
+        PooledConnection(Transport transport) {
+            this.transport = transport;
+        }
+
+        void reconnect() throws MessagingException {
+            closeQuietly();
+            transport = session.getTransport(protocol);
+            transport.connect(host, port, username, password);
+        }
+
+        void closeQuietly() {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Lỗi khi đóng kết nối SMTP: {}", e.getMessage());
+            }
+        }
+    }
+}
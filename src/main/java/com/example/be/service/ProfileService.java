@@ -3,6 +3,7 @@ package com.example.be.service;
 import com.example.be.dto.request.UpdateProfileRequest;
 import com.example.be.dto.response.ProfileResponse;
 import com.example.be.entity.User;
+import com.example.be.exception.BusinessException;
 import com.example.be.mapper.UserMapper;
 import com.example.be.repository.UserRepository;
 import com.example.be.utils.ValidatorUtils;
@@ -10,8 +11,8 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
 
 @Service
 @RequiredArgsConstructor
@@ -21,24 +22,56 @@ public class ProfileService {
     UserMapper userMapper;
     UserRepository userRepository;
     AuthService authService;
-    PasswordEncoder passwordEncoder;
+    PasswordHashingService passwordHashingService;
+    AvatarStorageService avatarStorageService;
+    UserStateCache userStateCache;
+
+    /**
+     * ETag mạnh theo version của User, ví dụ {@code "p12"}.
+     */
+    public static String etag(Long version) {
+        return "\"p" + (version != null ? version : 0L) + "\"";
+    }
+
+    /**
+     * ETag hiện tại lấy từ near-cache trạng thái, không tải entity; null nếu người dùng không tồn tại.
+     */
+    public String currentETag(Authentication authentication) {
+        UserStateCache.UserState state = userStateCache.get(authentication.getName());
+        return state != null ? etag(state.version()) : null;
+    }
 
     public ProfileResponse getProfile(Authentication authentication) {
-        User user = authService.validateUser(authentication);
-        return userMapper.toProfileResponse(user);
+        // Chỉ đọc các cột hiển thị, không tải toàn bộ entity
+        return userRepository.findProfileViewByEmail(authentication.getName())
+                .map(userMapper::toProfileResponse)
+                .orElseThrow(() -> new BusinessException("Email không tồn tại trong hệ thống", 404));
     }
 
     public void updateProfile(Authentication authentication, UpdateProfileRequest request) {
         User user = authService.validateUser(authentication);
         if(ValidatorUtils.isValidString(request.getPassword())) {
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            user.setPassword(passwordHashingService.encode(request.getPassword()));
         }
         if(ValidatorUtils.isValidString(request.getFullName())) {
             user.setFullName(request.getFullName());
         }
-        if(ValidatorUtils.isValidString(request.getAvatar())) {
-            user.setAvatar(request.getAvatar());
-        }
+        // Cache User trên mọi node được đồng bộ qua UserEntityListener sau khi commit
         userRepository.save(user);
     }
+
+    /**
+     * Lưu ảnh đại diện mới, chỉ ghi khóa ảnh vào users.avatar và dọn ảnh cũ trên pool nền.
+     */
+    public String updateAvatar(Authentication authentication, MultipartFile file) {
+        User user = authService.validateUser(authentication);
+        String key = avatarStorageService.store(file);
+
+        String previous = user.getAvatar();
+        user.setAvatar(key);
+        userRepository.save(user);
+
+        avatarStorageService.deleteAsync(previous);
+        return key;
+    }
 }
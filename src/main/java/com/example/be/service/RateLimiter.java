@@ -0,0 +1,134 @@
+package com.example.be.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Giới hạn tần suất gọi API xác thực bằng token bucket theo IP và theo email.
+ * Bucket dùng chung giữa các node nằm trong Redis (một script Lua cho mọi khóa của request);
+ * trước đó một bucket cục bộ theo IP chặn các đợt flood rõ ràng mà không cần gọi Redis.
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RateLimiter {
+
+    static String IP_KEY_PREFIX = "RATE_LIMIT:IP:";
+    static String EMAIL_KEY_PREFIX = "RATE_LIMIT:EMAIL:";
+
+    static RedisScript<Long> RATE_LIMIT_SCRIPT = RedisScript.of(new ClassPathResource("scripts/rate-limit.lua"), Long.class);
+
+    RedisTemplate<String, String> redisTemplate;
+
+    String ipCapacity;
+    String ipRate;
+    String emailCapacity;
+    String emailRate;
+
+    long localCapacity;
+    double localRatePerNano;
+    Cache<String, LocalBucket> localBuckets;
+
+    Counter localRejected;
+    Counter sharedRejected;
+
+    public RateLimiter(
+            RedisTemplate<String, String> redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${rate-limit.ip.capacity}") long ipCapacity,
+            @Value("${rate-limit.ip.refill-per-minute}") long ipRefillPerMinute,
+            @Value("${rate-limit.email.capacity}") long emailCapacity,
+            @Value("${rate-limit.email.refill-per-minute}") long emailRefillPerMinute,
+            @Value("${rate-limit.local.capacity}") long localCapacity,
+            @Value("${rate-limit.local.refill-per-minute}") long localRefillPerMinute,
+            @Value("${rate-limit.local.max-entries}") long localMaxEntries) {
+        this.redisTemplate = redisTemplate;
+
+        // Tham số script được dựng sẵn một lần
+        this.ipCapacity = String.valueOf(ipCapacity);
+        this.ipRate = String.valueOf((double) ipRefillPerMinute / TimeUnit.MINUTES.toMillis(1));
+        this.emailCapacity = String.valueOf(emailCapacity);
+        this.emailRate = String.valueOf((double) emailRefillPerMinute / TimeUnit.MINUTES.toMillis(1));
+
+        this.localCapacity = localCapacity;
+        this.localRatePerNano = (double) localRefillPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.localBuckets = Caffeine.newBuilder()
+                .maximumSize(localMaxEntries)
+                .expireAfterAccess(Duration.ofNanos((long) (localCapacity / localRatePerNano)))
+                .build();
+
+        this.localRejected = meterRegistry.counter("rate-limit.rejected", "scope", "local");
+        this.sharedRejected = meterRegistry.counter("rate-limit.rejected", "scope", "shared");
+    }
+
+    /**
+     * Lấy một token cho request từ IP (và email nếu có).
+     *
+     * @return 0 nếu được phép, ngược lại số ms cần chờ trước khi thử lại
+     */
+    public long tryAcquire(String ip, String email) {
+        long localWait = localBuckets.get(ip, key -> new LocalBucket(localCapacity)).tryConsume(localCapacity, localRatePerNano);
+        if (localWait > 0) {
+            localRejected.increment();
+            return localWait;
+        }
+
+        Long wait;
+        try {
+            wait = email == null
+                    ? redisTemplate.execute(RATE_LIMIT_SCRIPT, List.of(IP_KEY_PREFIX + ip), ipCapacity, ipRate)
+                    : redisTemplate.execute(RATE_LIMIT_SCRIPT, List.of(IP_KEY_PREFIX + ip, EMAIL_KEY_PREFIX + email),
+                            ipCapacity, ipRate, emailCapacity, emailRate);
+        } catch (Exception e) {
+            // Redis lỗi → chỉ dựa vào bucket cục bộ, không chặn toàn bộ chức năng đăng nhập
+            log.warn("Không thể kiểm tra giới hạn tần suất trên Redis: {}", e.getMessage());
+            return 0;
+        }
+
+        if (wait == null || wait <= 0) {
+            return 0;
+        }
+        sharedRejected.increment();
+        return wait;
+    }
+
+    /**
+     * Token bucket trong bộ nhớ của một IP.
+     */
+    private static final class LocalBucket {
+
+        double tokens;
+        long lastRefill;
+
+        LocalBucket(long capacity) {
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        synchronized long tryConsume(long capacity, double ratePerNano) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerNano);
+            lastRefill = now;
+
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return TimeUnit.NANOSECONDS.toMillis((long) Math.ceil((1 - tokens) / ratePerNano)) + 1;
+        }
+    }
+}
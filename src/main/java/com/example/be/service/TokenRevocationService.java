@@ -0,0 +1,217 @@
+package com.example.be.service;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.be.utils.BloomFilter;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thu hồi JWT trước khi hết hạn (đăng xuất, đăng xuất mọi thiết bị).
+ * Danh sách thu hồi được lưu trong Redis và sao chép vào bộ nhớ (Bloom filter + tập chính xác),
+ * nên kiểm tra ở mỗi request thường chỉ đọc bộ nhớ; Redis chỉ được hỏi khi Bloom filter báo trùng.
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TokenRevocationService {
+
+    public static final String REVOCATION_CHANNEL = "TOKEN_REVOCATION";
+
+    static String REVOKED_TOKENS_KEY = "REVOKED_TOKENS";
+    static String NOT_BEFORE_KEY = "TOKEN_NOT_BEFORE";
+    static String TOKEN_PREFIX = "jti:";
+    static String USER_PREFIX = "user:";
+    static double FALSE_POSITIVE_RATE = 0.001;
+
+    RedisTemplate<String, String> redisTemplate;
+    long accessExpirationMillis;
+    int expectedEntries;
+
+    @NonFinal
+    volatile Snapshot snapshot;
+
+    public TokenRevocationService(
+            RedisTemplate<String, String> redisTemplate,
+            @Value("${jwt.access-expiration}") long jwtAccessExpiration,
+            @Value("${auth.revocation.expected-entries}") int expectedEntries) {
+        this.redisTemplate = redisTemplate;
+        this.accessExpirationMillis = jwtAccessExpiration;
+        this.expectedEntries = expectedEntries;
+        this.snapshot = new Snapshot(new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Kiểm tra token đã bị thu hồi (theo jti) hoặc được cấp trước mốc "not-before" của người dùng.
+     */
+    public boolean isRevoked(DecodedJWT jwt) {
+        Snapshot current = snapshot;
+
+        String jti = jwt.getId();
+        if (jti != null && current.bloom.mightContain(TOKEN_PREFIX + jti)) {
+            if (current.revokedTokens.containsKey(jti)) {
+                return true;
+            }
+            Double expiresAt = redisTemplate.opsForZSet().score(REVOKED_TOKENS_KEY, jti);
+            if (expiresAt != null) {
+                current.revokedTokens.put(jti, expiresAt.longValue());
+                return true;
+            }
+        }
+
+        String email = jwt.getSubject();
+        if (current.bloom.mightContain(USER_PREFIX + email)) {
+            Long notBefore = current.notBefore.get(email);
+            if (notBefore == null) {
+                Object value = redisTemplate.opsForHash().get(NOT_BEFORE_KEY, email);
+                notBefore = value != null ? Long.parseLong(value.toString()) : null;
+            }
+            Long issuedAt = issuedAtMillis(jwt);
+            return notBefore != null && issuedAt != null && issuedAt < notBefore;
+        }
+        return false;
+    }
+
+    /**
+     * Thời điểm cấp token (mili giây): claim {@link JwtService#ISSUED_AT_MILLIS_CLAIM}, token cũ không có claim đó
+     * thì lấy {@code iat} (đầu giây, nên token cũ cấp trong cùng giây với mốc thu hồi vẫn bị chặn).
+     */
+    private static Long issuedAtMillis(DecodedJWT jwt) {
+        Long millis = jwt.getClaim(JwtService.ISSUED_AT_MILLIS_CLAIM).asLong();
+        if (millis != null) {
+            return millis;
+        }
+        return jwt.getIssuedAtAsInstant() != null ? jwt.getIssuedAtAsInstant().toEpochMilli() : null;
+    }
+
+    /**
+     * Thu hồi một token cụ thể (đăng xuất trên thiết bị hiện tại).
+     */
+    public void revoke(DecodedJWT jwt) {
+        String jti = jwt.getId();
+        if (jti == null) {
+            // Token cũ chưa có jti → chỉ có thể thu hồi toàn bộ token của người dùng
+            revokeAll(jwt.getSubject());
+            return;
+        }
+
+        long expiresAt = jwt.getExpiresAtAsInstant().getEpochSecond();
+        redisTemplate.opsForZSet().add(REVOKED_TOKENS_KEY, jti, expiresAt);
+        applyRevokedToken(jti, expiresAt);
+        redisTemplate.convertAndSend(REVOCATION_CHANNEL, TOKEN_PREFIX + jti + ":" + expiresAt);
+    }
+
+    /**
+     * Thu hồi mọi token đã cấp cho người dùng trước thời điểm hiện tại (mốc tính bằng mili giây).
+     */
+    public void revokeAll(String email) {
+        long notBefore = System.currentTimeMillis();
+        redisTemplate.opsForHash().put(NOT_BEFORE_KEY, email, String.valueOf(notBefore));
+        applyNotBefore(email, notBefore);
+        redisTemplate.convertAndSend(REVOCATION_CHANNEL, USER_PREFIX + notBefore + ":" + email);
+    }
+
+    /**
+     * Áp dụng thông báo thu hồi nhận từ node khác qua Redis pub/sub.
+     */
+    public void onRevocationMessage(String message) {
+        if (message.startsWith(TOKEN_PREFIX)) {
+            int separator = message.lastIndexOf(':');
+            applyRevokedToken(message.substring(TOKEN_PREFIX.length(), separator), Long.parseLong(message.substring(separator + 1)));
+        } else if (message.startsWith(USER_PREFIX)) {
+            int separator = message.indexOf(':', USER_PREFIX.length());
+            applyNotBefore(message.substring(separator + 1), Long.parseLong(message.substring(USER_PREFIX.length(), separator)));
+        }
+    }
+
+    /**
+     * Đồng bộ lại toàn bộ danh sách thu hồi từ Redis, dọn các mục đã hết hạn và dựng lại Bloom filter.
+     * Thông báo thu hồi tới trong lúc dựng lại được gộp vào snapshot mới (xem {@link #applyRevokedToken}).
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.sync-ms}")
+    public void sync() {
+        long nowMillis = System.currentTimeMillis();
+        long now = nowMillis / 1000;
+
+        // Token đã hết hạn thì không cần thu hồi nữa
+        redisTemplate.opsForZSet().removeRangeByScore(REVOKED_TOKENS_KEY, Double.NEGATIVE_INFINITY, now);
+        Set<ZSetOperations.TypedTuple<String>> tokens =
+                redisTemplate.opsForZSet().rangeByScoreWithScores(REVOKED_TOKENS_KEY, now, Double.POSITIVE_INFINITY);
+
+        Map<Object, Object> users = redisTemplate.opsForHash().entries(NOT_BEFORE_KEY);
+
+        int size = (tokens != null ? tokens.size() : 0) + users.size();
+        BloomFilter bloom = new BloomFilter(Math.max(expectedEntries, size * 2), FALSE_POSITIVE_RATE);
+        Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+        Map<String, Long> notBefore = new ConcurrentHashMap<>();
+
+        if (tokens != null) {
+            for (ZSetOperations.TypedTuple<String> token : tokens) {
+                revokedTokens.put(token.getValue(), token.getScore().longValue());
+                bloom.add(TOKEN_PREFIX + token.getValue());
+            }
+        }
+
+        for (Map.Entry<Object, Object> entry : users.entrySet()) {
+            String email = entry.getKey().toString();
+            long millis = Long.parseLong(entry.getValue().toString());
+            // Mốc cũ hơn thời hạn token thì mọi token bị chặn đều đã hết hạn
+            if (millis + accessExpirationMillis < nowMillis) {
+                redisTemplate.opsForHash().delete(NOT_BEFORE_KEY, email);
+                continue;
+            }
+            notBefore.put(email, millis);
+            bloom.add(USER_PREFIX + email);
+        }
+
+        Snapshot fresh = new Snapshot(bloom, revokedTokens, notBefore);
+        Snapshot previous = snapshot;
+        snapshot = fresh;
+        // Thu hồi đã áp vào snapshot cũ sau lúc đọc Redis ở trên sẽ mất nếu không gộp lại; thu hồi áp vào snapshot cũ
+        // sau bước đổi snapshot thì tự áp lại vào snapshot mới
+        previous.revokedTokens.forEach((jti, expiresAt) -> {
+            if (expiresAt > now) {
+                applyRevokedToken(jti, expiresAt);
+            }
+        });
+        previous.notBefore.forEach((email, millis) -> {
+            if (millis + accessExpirationMillis >= nowMillis) {
+                applyNotBefore(email, millis);
+            }
+        });
+    }
+
+    /**
+     * Ghi vào snapshot hiện tại; nếu {@link #sync()} vừa thay snapshot trong lúc ghi thì ghi lại vào snapshot mới.
+     */
+    private void applyRevokedToken(String jti, long expiresAt) {
+        Snapshot current;
+        do {
+            current = snapshot;
+            current.revokedTokens.merge(jti, expiresAt, Math::max);
+            current.bloom.add(TOKEN_PREFIX + jti);
+        } while (current != snapshot);
+    }
+
+    private void applyNotBefore(String email, long millis) {
+        Snapshot current;
+        do {
+            current = snapshot;
+            current.notBefore.merge(email, millis, Math::max);
+            current.bloom.add(USER_PREFIX + email);
+        } while (current != snapshot);
+    }
+
+    private record Snapshot(BloomFilter bloom, Map<String, Long> revokedTokens, Map<String, Long> notBefore) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.be.service;
+
+import com.example.be.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.SessionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Đồng bộ các cache User trong bộ nhớ giữa các node.
+ * Hibernate chỉ cập nhật second-level cache của node thực hiện ghi,
+ * nên mỗi lần User thay đổi được phát qua Redis pub/sub để node khác xóa bản cũ.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserCacheSynchronizer {
+
+    public static final String INVALIDATION_CHANNEL = "USER_CACHE_INVALIDATION";
+
+    RedisTemplate<String, String> redisTemplate;
+    UserStateCache userStateCache;
+    EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Gọi khi User được thêm, sửa hoặc xóa. Thông báo được gửi sau khi transaction commit
+     * để node khác không tải lại dữ liệu cũ.
+     */
+    public void onUserChanged(User user) {
+        String message = user.getId() + ":" + user.getEmail();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(message);
+                }
+            });
+        } else {
+            publish(message);
+        }
+    }
+
+    /**
+     * Xóa dữ liệu User đã cache trên node hiện tại (nhận từ Redis pub/sub).
+     */
+    public void onInvalidationMessage(String message) {
+        int separator = message.indexOf(':');
+        Long id = Long.valueOf(message.substring(0, separator));
+        String email = message.substring(separator + 1);
+
+        userStateCache.evictLocal(email);
+
+        // Ánh xạ email → id không đổi và natural-id cache không lưu kết quả rỗng, nên chỉ cần xóa đúng entity này.
+        // Tra cứu User theo email đều đi qua natural-id + entity cache (không bật query cache)
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictEntityData(User.class, id);
+    }
+
+    private void publish(String message) {
+        userStateCache.evictLocal(message.substring(message.indexOf(':') + 1));
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.be.service;
+
+import com.example.be.enums.Role;
+import com.example.be.repository.UserRepository;
+import com.example.be.repository.projection.UserAuthView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Near-cache trạng thái (active, role, version) của người dùng, dùng khi dựng principal từ claims của JWT
+ * và khi trả 304 cho /api/profile mà không cần đọc DB.
+ * Mọi node được đồng bộ qua {@link UserCacheSynchronizer} mỗi khi người dùng thay đổi.
+ */
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserStateCache {
+
+    // Số ngăn thế hệ: mỗi email thuộc một ngăn theo hash, bộ nhớ cố định thay vì một bộ đếm cho mỗi email
+    static int GENERATION_STRIPES = 1024;
+
+    UserRepository userRepository;
+    Cache<String, UserState> cache;
+    // Tăng mỗi lần evict; lần nạp từ DB nào chồng lên một lần evict thì không được giữ lại kết quả
+    AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public UserStateCache(
+            UserRepository userRepository,
+            @Value("${auth.user-state-cache.max-size}") long maxSize,
+            @Value("${auth.user-state-cache.ttl-minutes}") long ttlMinutes) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    /**
+     * Lấy trạng thái người dùng, chỉ truy vấn DB khi chưa có trong cache.
+     */
+    public UserState get(String email) {
+        UserState state = cache.getIfPresent(email);
+        if (state != null) {
+            return state;
+        }
+
+        // Không dùng cache.get(key, loader): loader chạy trong khối synchronized của ConcurrentHashMap,
+        // sẽ ghim (pin) carrier thread trong suốt truy vấn DB khi chạy trên virtual thread
+        int stripe = stripe(email);
+        long generation = generations.get(stripe);
+        state = load(email);
+        if (state != null) {
+            cache.put(email, state);
+            // Có lần evict trong lúc đang đọc DB → state có thể đã cũ, gỡ ra để lần sau đọc lại.
+            // Kiểm tra sau khi put: evict xảy ra sau bước kiểm tra này thì chính nó sẽ xóa giá trị vừa put
+            if (generations.get(stripe) != generation) {
+                cache.asMap().remove(email, state);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Xóa trạng thái đã cache trên node hiện tại.
+     */
+    public void evictLocal(String email) {
+        generations.incrementAndGet(stripe(email));
+        cache.invalidate(email);
+    }
+
+    private static int stripe(String email) {
+        return (email.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+    }
+
+    private UserState load(String email) {
+        return userRepository.findAuthViewByEmail(email)
+                .map(this::toState)
+                .orElse(null);
+    }
+
+    private UserState toState(UserAuthView user) {
+        return new UserState(Boolean.TRUE.equals(user.active()), user.role(), user.version() != null ? user.version() : 0L);
+    }
+
+    public record UserState(boolean active, Role role, long version) {
+    }
+}
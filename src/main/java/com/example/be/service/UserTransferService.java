@@ -0,0 +1,343 @@
+package com.example.be.service;
+
+import com.example.be.dto.request.ImportUserRequest;
+import com.example.be.dto.response.ImportUsersResponse;
+import com.example.be.enums.AuthProvider;
+import com.example.be.enums.Role;
+import com.example.be.exception.BusinessException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Xuất/nhập bảng users hàng loạt bằng JDBC, không đi qua persistence context của JPA.
+ * Xuất: đọc bằng cursor chỉ-tiến với fetch size cố định và ghi thẳng ra output, bộ nhớ không phụ thuộc số dòng.
+ * Nhập: đọc NDJSON từng dòng và ghi theo lô (batch insert), mật khẩu phải là chuỗi BCrypt đã hash sẵn.
+ */
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserTransferService {
+
+    static String EXPORT_SQL = "SELECT id, email, password, full_name, avatar, role, auth_provider, active, created_at, updated_at "
+            + "FROM users ORDER BY id";
+
+    static String IMPORT_SQL = "INSERT INTO users (email, password, full_name, avatar, role, auth_provider, active, created_at, updated_at) "
+            + "VALUES ";
+
+    // Chỉ bỏ qua trùng khóa (email vừa được tạo song song sau bước kiểm tra); khác với INSERT IGNORE,
+    // lỗi dữ liệu như quá độ dài, sai enum, sai ngày vẫn làm câu lệnh thất bại thay vì bị ghi cắt xén
+    static String IMPORT_ON_DUPLICATE = " ON DUPLICATE KEY UPDATE id = id";
+
+    static String EXISTING_EMAILS_SQL = "SELECT email FROM users WHERE email IN (";
+
+    static String IMPORT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    static int IMPORT_PARAMS_PER_ROW = 9;
+
+    // Giới hạn placeholder của một prepared statement trong MySQL
+    static int MAX_PLACEHOLDERS = 65_535;
+
+    static String[] COLUMNS = {"id", "email", "password", "fullName", "avatar", "role", "authProvider", "active", "createdAt", "updatedAt"};
+
+    static Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+
+    static int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    JdbcTemplate jdbcTemplate;
+    ObjectMapper objectMapper;
+    int fetchSize;
+    int batchSize;
+    String fullBatchSql;
+    String fullExistingSql;
+
+    public UserTransferService(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${admin.users.export-fetch-size}") int fetchSize,
+            @Value("${admin.users.import-batch-size}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.batchSize = Math.max(1, Math.min(batchSize, MAX_PLACEHOLDERS / IMPORT_PARAMS_PER_ROW));
+        this.fullBatchSql = insertSql(this.batchSize);
+        this.fullExistingSql = existingSql(this.batchSize);
+    }
+
+    /**
+     * Xuất toàn bộ người dùng dạng NDJSON (mỗi dòng một object).
+     *
+     * @return số dòng đã xuất
+     */
+    public long exportNdjson(OutputStream output) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            return stream(rs -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeNumberField(COLUMNS[0], rs.getLong(1));
+                    for (int i = 2; i <= 7; i++) {
+                        writeStringField(generator, COLUMNS[i - 1], rs.getString(i));
+                    }
+                    generator.writeBooleanField(COLUMNS[7], rs.getBoolean(8));
+                    writeStringField(generator, COLUMNS[8], format(rs.getTimestamp(9)));
+                    writeStringField(generator, COLUMNS[9], format(rs.getTimestamp(10)));
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Xuất toàn bộ người dùng dạng CSV (dòng đầu là tên cột).
+     *
+     * @return số dòng đã xuất
+     */
+    public long exportCsv(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        writer.write(String.join(",", COLUMNS));
+        writer.write('\n');
+
+        long count = stream(rs -> {
+            try {
+                writer.write(Long.toString(rs.getLong(1)));
+                for (int i = 2; i <= 7; i++) {
+                    writer.write(',');
+                    writeCsvValue(writer, rs.getString(i));
+                }
+                writer.write(',');
+                writer.write(Boolean.toString(rs.getBoolean(8)));
+                writer.write(',');
+                writeCsvValue(writer, format(rs.getTimestamp(9)));
+                writer.write(',');
+                writeCsvValue(writer, format(rs.getTimestamp(10)));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Nhập người dùng từ NDJSON. Dòng sai định dạng dữ liệu bị bỏ qua, email đã tồn tại được giữ nguyên;
+     * lô bị database từ chối (quá độ dài cột, ...) dừng việc nhập với lỗi 400.
+     * Các lô đã ghi không bị rollback khi gặp lỗi ở dòng sau. Không cần xóa cache: cache User không lưu kết quả
+     * tra cứu rỗng nên dòng mới được đọc thẳng từ DB ở lần đầu.
+     */
+    public ImportUsersResponse importNdjson(InputStream input) throws IOException {
+        long imported = 0;
+        long duplicated = 0;
+        long invalid = 0;
+        List<Object[]> batch = new ArrayList<>(batchSize);
+
+        try (MappingIterator<ImportUserRequest> rows = objectMapper.readerFor(ImportUserRequest.class).readValues(input)) {
+            while (rows.hasNextValue()) {
+                Object[] params = toParams(rows.nextValue());
+                if (params == null) {
+                    invalid++;
+                    continue;
+                }
+                batch.add(params);
+                if (batch.size() == batchSize) {
+                    long inserted = flush(batch, imported);
+                    imported += inserted;
+                    duplicated += batchSize - inserted;
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("Dòng " + e.getLocation().getLineNr() + " không phải JSON hợp lệ. Đã nhập "
+                    + imported + " người dùng trước dòng này.", 400);
+        }
+
+        if (!batch.isEmpty()) {
+            int size = batch.size();
+            long inserted = flush(batch, imported);
+            imported += inserted;
+            duplicated += size - inserted;
+        }
+
+        return ImportUsersResponse.builder()
+                .imported(imported)
+                .duplicated(duplicated)
+                .invalid(invalid)
+                .build();
+    }
+
+    private long stream(RowCallbackHandler handler) {
+        long[] count = {0};
+        try {
+            jdbcTemplate.query(this::prepareExport, (ResultSet rs) -> {
+                handler.processRow(rs);
+                count[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            // Client ngắt kết nối giữa chừng → dừng đọc cursor
+            throw new BusinessException("Xuất dữ liệu bị gián đoạn: " + e.getCause().getMessage(), 500);
+        }
+        return count[0];
+    }
+
+    private PreparedStatement prepareExport(Connection connection) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(streamingFetchSize(connection));
+        return statement;
+    }
+
+    /**
+     * MySQL Connector/J chỉ dùng cursor phía server khi URL có useCursorFetch=true;
+     * nếu không, fetch size Integer.MIN_VALUE là cách duy nhất để đọc từng dòng thay vì tải cả bảng vào RAM.
+     */
+    private int streamingFetchSize(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        String url = connection.getMetaData().getURL();
+        if ("MySQL".equalsIgnoreCase(product) && (url == null || !url.contains("useCursorFetch=true"))) {
+            return Integer.MIN_VALUE;
+        }
+        return fetchSize;
+    }
+
+    /**
+     * Ghi cả lô bằng một câu INSERT nhiều dòng, không phụ thuộc driver có gộp batch hay không.
+     * Email trùng được lọc trước bằng một truy vấn theo unique index: với ON DUPLICATE KEY UPDATE, Connector/J mặc định
+     * (useAffectedRows=false) tính cả dòng trùng là bị ảnh hưởng nên không dùng số dòng trả về để đếm.
+     *
+     * @return số dòng mới
+     */
+    private long flush(List<Object[]> batch, long imported) {
+        try {
+            Object[] emails = new Object[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                emails[i] = batch.get(i)[0];
+            }
+            String existingSql = batch.size() == batchSize ? fullExistingSql : existingSql(batch.size());
+            Set<String> seen = new HashSet<>();
+            for (String email : jdbcTemplate.queryForList(existingSql, String.class, emails)) {
+                seen.add(email.toLowerCase(Locale.ROOT));
+            }
+
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            for (Object[] row : batch) {
+                if (seen.add(((String) row[0]).toLowerCase(Locale.ROOT))) {
+                    rows.add(row);
+                }
+            }
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            String sql = rows.size() == batchSize ? fullBatchSql : insertSql(rows.size());
+            Object[] params = new Object[rows.size() * IMPORT_PARAMS_PER_ROW];
+            for (int i = 0; i < rows.size(); i++) {
+                System.arraycopy(rows.get(i), 0, params, i * IMPORT_PARAMS_PER_ROW, IMPORT_PARAMS_PER_ROW);
+            }
+            jdbcTemplate.update(sql, params);
+            return rows.size();
+        } catch (DataAccessException e) {
+            throw new BusinessException("Không ghi được lô dữ liệu: " + e.getMostSpecificCause().getMessage()
+                    + ". Đã nhập " + imported + " người dùng trước lô này.", 400);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private static String insertSql(int rows) {
+        return IMPORT_SQL + String.join(", ", Collections.nCopies(rows, IMPORT_ROW)) + IMPORT_ON_DUPLICATE;
+    }
+
+    private static String existingSql(int rows) {
+        return EXISTING_EMAILS_SQL + String.join(", ", Collections.nCopies(rows, "?")) + ")";
+    }
+
+    private Object[] toParams(ImportUserRequest row) {
+        if (row.getEmail() == null || row.getEmail().isBlank() || !row.getEmail().contains("@")) {
+            return null;
+        }
+
+        Role role;
+        AuthProvider authProvider;
+        try {
+            role = row.getRole() != null ? Role.valueOf(row.getRole()) : Role.USER;
+            authProvider = row.getAuthProvider() != null ? AuthProvider.valueOf(row.getAuthProvider()) : AuthProvider.NONE;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        // Chỉ nhận mật khẩu đã hash: không tốn CPU cho BCrypt khi nhập hàng triệu dòng
+        String password = row.getPassword() != null ? row.getPassword() : "";
+        if (authProvider == AuthProvider.NONE && !BCRYPT_HASH.matcher(password).matches()) {
+            return null;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        return new Object[]{
+                row.getEmail().trim(),
+                password,
+                row.getFullName(),
+                row.getAvatar(),
+                role.name(),
+                authProvider.name(),
+                row.getActive() != null ? row.getActive() : Boolean.TRUE,
+                Timestamp.valueOf(row.getCreatedAt() != null ? row.getCreatedAt() : now),
+                Timestamp.valueOf(row.getUpdatedAt() != null ? row.getUpdatedAt() : now)
+        };
+    }
+
+    private static void writeStringField(JsonGenerator generator, String name, String value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static String format(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime().toString() : null;
+    }
+}
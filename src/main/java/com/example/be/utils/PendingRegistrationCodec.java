@@ -0,0 +1,51 @@
+package com.example.be.utils;
+
+import com.example.be.service.PendingRegistration;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Mã hóa {@link PendingRegistration} thành mảng byte gọn để lưu trong Redis, thay cho JSON.
+ * Định dạng: [phiên bản:1][độ dài họ tên:2][họ tên UTF-8][độ dài hash:1][hash BCrypt ASCII].
+ * Email không cần lưu vì đã nằm trong key.
+ */
+public final class PendingRegistrationCodec {
+
+    static final byte VERSION = 1;
+
+    private PendingRegistrationCodec() {
+    }
+
+    public static byte[] encode(PendingRegistration registration) {
+        byte[] fullName = registration.fullName().getBytes(StandardCharsets.UTF_8);
+        byte[] password = registration.encodedPassword().getBytes(StandardCharsets.US_ASCII);
+        if (fullName.length > 0xFFFF || password.length > 0xFF) {
+            throw new IllegalArgumentException("Dữ liệu đăng ký quá dài");
+        }
+
+        return ByteBuffer.allocate(1 + 2 + fullName.length + 1 + password.length)
+                .put(VERSION)
+                .putShort((short) fullName.length)
+                .put(fullName)
+                .put((byte) password.length)
+                .put(password)
+                .array();
+    }
+
+    public static PendingRegistration decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Phiên bản dữ liệu đăng ký không được hỗ trợ: " + version);
+        }
+
+        int fullNameLength = Short.toUnsignedInt(buffer.getShort());
+        String fullName = new String(bytes, buffer.position(), fullNameLength, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + fullNameLength);
+
+        int passwordLength = Byte.toUnsignedInt(buffer.get());
+        String password = new String(bytes, buffer.position(), passwordLength, StandardCharsets.US_ASCII);
+        return new PendingRegistration(fullName, password);
+    }
+}
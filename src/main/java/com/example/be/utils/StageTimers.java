@@ -0,0 +1,34 @@
+package com.example.be.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đo thời gian từng bước của một luồng xử lý.
+ * Timer được dựng sẵn một lần, trên hot path chỉ còn System.nanoTime() và một lần record (không cấp phát).
+ */
+public final class StageTimers {
+
+    public static final String AUTH_STAGE_METRIC = "auth.stage.latency";
+
+    private StageTimers() {
+    }
+
+    /**
+     * Timer cho một bước (stage) của một luồng (flow) trong AuthService.
+     */
+    public static Timer authStage(MeterRegistry meterRegistry, String flow, String stage) {
+        return meterRegistry.timer(AUTH_STAGE_METRIC, "flow", flow, "stage", stage);
+    }
+
+    /**
+     * Ghi thời gian từ start đến hiện tại vào timer và trả về mốc hiện tại cho bước kế tiếp.
+     */
+    public static long lap(Timer timer, long start) {
+        long now = System.nanoTime();
+        timer.record(now - start, TimeUnit.NANOSECONDS);
+        return now;
+    }
+}
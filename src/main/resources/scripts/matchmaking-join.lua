@@ -0,0 +1,21 @@
+-- Vào hàng chờ của một mức cược (một round trip, không khóa)
+-- KEYS[1] = hash trạng thái người chơi (s = mức cược đang chờ, r = phòng đã ghép), KEYS[2] = ZSET hàng chờ mức cược
+-- ARGV[1] = email, ARGV[2] = mức cược, ARGV[3] = tiền tố key hàng chờ, ARGV[4] = TTL trạng thái chờ (giây)
+-- Kết quả: {1, vị trí trong hàng chờ} hoặc {2, id phòng} nếu đã được ghép nhưng chưa rời hàng
+local state = redis.call('HMGET', KEYS[1], 's', 'r')
+if state[2] then
+    return {2, state[2]}
+end
+
+-- Đang chờ ở mức cược khác → chuyển hàng
+if state[1] and state[1] ~= ARGV[2] then
+    redis.call('ZREM', ARGV[3] .. state[1], ARGV[1])
+end
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+-- NX: vào lại cùng hàng không mất vị trí cũ
+redis.call('ZADD', KEYS[2], 'NX', now, ARGV[1])
+redis.call('HSET', KEYS[1], 's', ARGV[2])
+redis.call('EXPIRE', KEYS[1], ARGV[4])
+return {1, redis.call('ZRANK', KEYS[2], ARGV[1])}
@@ -0,0 +1,9 @@
+-- Rời hàng chờ hoặc bỏ phòng đã ghép
+-- KEYS[1] = hash trạng thái người chơi
+-- ARGV[1] = email, ARGV[2] = tiền tố key hàng chờ
+-- Kết quả: 1 nếu đang chờ hoặc đã ghép, 0 nếu không có gì để hủy
+local stake = redis.call('HGET', KEYS[1], 's')
+if stake then
+    redis.call('ZREM', ARGV[2] .. stake, ARGV[1])
+end
+return redis.call('DEL', KEYS[1])
@@ -0,0 +1,44 @@
+-- Một lượt ghép bàn cho một mức cược: lấy tối đa ARGV[1] người chờ lâu nhất, chia thành các bàn 4 người.
+-- Chạy nguyên tử nên nhiều node cùng chạy tick cũng không xếp một người vào hai bàn.
+-- KEYS[1] = ZSET hàng chờ, KEYS[2] = bộ đếm id phòng
+-- ARGV[1] = số người tối đa mỗi lượt, ARGV[2] = mức cược, ARGV[3] = tiền tố key trạng thái người chơi,
+-- ARGV[4] = tiền tố id phòng, ARGV[5] = TTL trạng thái đã ghép (giây)
+-- Key trạng thái người chơi được suy ra trong script nên chỉ dùng với Redis standalone/sentinel, không dùng cluster.
+-- Kết quả: phẳng, mỗi bàn 9 phần tử {phòng, email1, ms chờ 1, ..., email4, ms chờ 4}
+local entries = redis.call('ZRANGE', KEYS[1], 0, tonumber(ARGV[1]) - 1, 'WITHSCORES')
+if #entries < 8 then
+    return {}
+end
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+-- Bỏ người chơi có trạng thái chờ đã hết hạn (mất kết nối) hoặc đã chuyển hàng
+local candidates = {}
+for i = 1, #entries, 2 do
+    local email = entries[i]
+    if redis.call('HGET', ARGV[3] .. email, 's') == ARGV[2] then
+        candidates[#candidates + 1] = i
+    else
+        redis.call('ZREM', KEYS[1], email)
+    end
+end
+
+local result = {}
+local seated = #candidates - #candidates % 4
+for c = 1, seated, 4 do
+    local room = ARGV[4] .. redis.call('INCR', KEYS[2])
+    result[#result + 1] = room
+    for j = c, c + 3 do
+        local i = candidates[j]
+        local email = entries[i]
+        local key = ARGV[3] .. email
+        redis.call('ZREM', KEYS[1], email)
+        redis.call('HDEL', key, 's')
+        redis.call('HSET', key, 'r', room)
+        redis.call('EXPIRE', key, ARGV[5])
+        result[#result + 1] = email
+        result[#result + 1] = tostring(now - tonumber(entries[i + 1]))
+    end
+end
+return result
@@ -0,0 +1,32 @@
+-- Cấp OTP mới nếu email không bị khóa và đã qua thời gian chờ.
+-- KEYS[1] = OTP_STATE (hash theo email + loại OTP)
+--   field 's' = trạng thái nén 17 byte: otp, hạn OTP, số lần sai, khóa đến, cooldown đến (struct '>IIBII', giây epoch)
+--   field 'r' = dữ liệu đăng ký chờ xác minh (nhị phân, chỉ với REGISTER)
+-- ARGV[1] = mã OTP, ARGV[2] = TTL OTP (giây), ARGV[3] = TTL cooldown (giây), ARGV[4] = dữ liệu đăng ký (tùy chọn)
+-- Kết quả: 0 = đã cấp, 1 = đang bị khóa, 2 = đang trong thời gian chờ
+local now = tonumber(redis.call('TIME')[1])
+
+local attempts, locked_until, cooldown_until = 0, 0, 0
+local packed = redis.call('HGET', KEYS[1], 's')
+if packed then
+    local _otp, _expires_at
+    _otp, _expires_at, attempts, locked_until, cooldown_until = struct.unpack('>IIBII', packed)
+end
+
+if locked_until > now then
+    return 1
+end
+if cooldown_until > now then
+    return 2
+end
+
+local expires_at = now + tonumber(ARGV[2])
+cooldown_until = now + tonumber(ARGV[3])
+redis.call('HSET', KEYS[1], 's', struct.pack('>IIBII', tonumber(ARGV[1]), expires_at, 0, 0, cooldown_until))
+
+-- Dữ liệu đăng ký chỉ được ghi khi OTP thực sự được cấp, luôn khớp với email OTP vừa gửi
+if ARGV[4] then
+    redis.call('HSET', KEYS[1], 'r', ARGV[4])
+end
+redis.call('EXPIREAT', KEYS[1], math.max(expires_at, cooldown_until))
+return 0
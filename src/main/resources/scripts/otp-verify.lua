@@ -0,0 +1,33 @@
+-- Xác minh OTP, đếm số lần nhập sai và khóa tạm thời khi vượt giới hạn.
+-- KEYS[1] = OTP_STATE (hash, xem otp-issue.lua)
+-- ARGV[1] = OTP người dùng nhập, ARGV[2] = số lần sai tối đa, ARGV[3] = TTL khóa (giây), ARGV[4] = TTL OTP (giây)
+-- Kết quả: 0 = hợp lệ (OTP đã bị tiêu thụ), 1 = đang bị khóa, 2 = sai OTP, 3 = sai OTP và vừa bị khóa
+local now = tonumber(redis.call('TIME')[1])
+
+local otp, expires_at, attempts, locked_until, cooldown_until = 0, 0, 0, 0, 0
+local packed = redis.call('HGET', KEYS[1], 's')
+if packed then
+    otp, expires_at, attempts, locked_until, cooldown_until = struct.unpack('>IIBII', packed)
+end
+
+if locked_until > now then
+    return 1
+end
+
+if otp ~= 0 and expires_at > now and tostring(otp) == ARGV[1] then
+    redis.call('HSET', KEYS[1], 's', struct.pack('>IIBII', 0, 0, 0, 0, cooldown_until))
+    return 0
+end
+
+local result = 2
+attempts = attempts + 1
+if attempts >= tonumber(ARGV[2]) then
+    locked_until = now + tonumber(ARGV[3])
+    attempts = 0
+    result = 3
+end
+
+redis.call('HSET', KEYS[1], 's', struct.pack('>IIBII', otp, expires_at, attempts, locked_until, cooldown_until))
+-- Chưa có OTP thì số lần sai vẫn được đếm trong thời hạn của một OTP
+redis.call('EXPIREAT', KEYS[1], math.max(expires_at, locked_until, cooldown_until, now + tonumber(ARGV[4])))
+return result
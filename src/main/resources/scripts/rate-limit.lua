@@ -0,0 +1,34 @@
+-- Token bucket cho nhiều khóa cùng lúc (IP, email): chỉ trừ token khi mọi bucket đều còn token.
+-- KEYS[i] = bucket thứ i
+-- ARGV[2i-1] = dung lượng bucket i, ARGV[2i] = tốc độ nạp lại của bucket i (token/ms)
+-- Kết quả: 0 = được phép, > 0 = số ms cần chờ trước khi thử lại
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local tokens = {}
+local wait = 0
+for i = 1, #KEYS do
+    local capacity = tonumber(ARGV[2 * i - 1])
+    local rate = tonumber(ARGV[2 * i])
+    local state = redis.call('HMGET', KEYS[i], 'tokens', 'ts')
+    local available = tonumber(state[1]) or capacity
+    local last = tonumber(state[2]) or now
+
+    available = math.min(capacity, available + math.max(0, now - last) * rate)
+    tokens[i] = available
+    if available < 1 then
+        wait = math.max(wait, math.ceil((1 - available) / rate))
+    end
+end
+
+for i = 1, #KEYS do
+    local capacity = tonumber(ARGV[2 * i - 1])
+    local rate = tonumber(ARGV[2 * i])
+    if wait == 0 then
+        tokens[i] = tokens[i] - 1
+    end
+    redis.call('HSET', KEYS[i], 'tokens', tostring(tokens[i]), 'ts', now)
+    -- Bucket đầy trở lại thì không cần giữ trong Redis nữa
+    redis.call('PEXPIRE', KEYS[i], math.ceil(capacity / rate))
+end
+return wait
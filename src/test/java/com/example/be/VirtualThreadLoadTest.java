@@ -0,0 +1,399 @@
+package com.example.be;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.example.be.repository.UserRepository;
+import com.example.be.service.JwtService;
+import com.example.be.service.UserTransferService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.interfaces.RSAPrivateKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * So sánh throughput và p99 của ứng dụng thật khi Tomcat chạy pool platform thread (200 luồng) và khi chạy virtual
+ * thread ({@code spring.threads.virtual.enabled}). Mỗi chế độ khởi động cả ứng dụng với H2 trong bộ nhớ và Redis local,
+ * rồi nhiều client HTTP hơn số luồng Tomcat gọi liên tục các đường xử lý có chờ I/O:
+ * đăng nhập bằng mật khẩu (JDBC/cache, pool BCrypt), GET /api/profile (filter JWT, Redis) và đăng nhập Google
+ * (đổi code ở token endpoint giả lập trả lời sau {@value #GOOGLE_LATENCY_MS} ms, verify id_token ký bằng key tạm).
+ * Lỗi (khác 503 khi pool BCrypt đầy) làm test thất bại; virtual thread phải đạt throughput không thấp hơn và p99
+ * không cao hơn platform thread. Cần Redis ở 127.0.0.1:6379. Chạy bằng: mvn test -Pload-test -Dtest=VirtualThreadLoadTest
+ */
+@Slf4j
+@Tag("load")
+class VirtualThreadLoadTest {
+
+    // Nhiều hơn số luồng Tomcat mặc định (200) để pool platform thread bị dùng hết. Mặc định chọn cho máy 1 vCPU:
+    // Google chậm và chiếm phần lớn request để giới hạn luồng chạm trước giới hạn CPU; máy nhiều core có thể tăng
+    // số client và giảm độ trễ, ví dụ -DargLine="-Dload.clients=1000 -Dload.google-latency-ms=500"
+    private static final int CLIENTS = Integer.getInteger("load.clients", 300);
+    private static final long GOOGLE_LATENCY_MS = Long.getLong("load.google-latency-ms", 4000);
+    private static final int GOOGLE_PERCENT = 80;
+    private static final int PROFILE_PERCENT = 10;
+    private static final int USERS = 1000;
+    private static final int GOOGLE_USERS = 200;
+    private static final long WARMUP_SECONDS = 20;
+    private static final long DURATION_SECONDS = 30;
+
+    private static final String PASSWORD = "secret123";
+    private static final String CLIENT_ID = "load-test";
+    private static final String KEY_ALIAS = "google";
+    private static final char[] KEY_PASSWORD = "changeit".toCharArray();
+
+    @TempDir
+    Path tempDir;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private RSAPrivateKey signingKey;
+    private final String[] idTokens = new String[GOOGLE_USERS];
+
+    @Test
+    void comparesPlatformAndVirtualThreadsOnAuthPaths() throws Exception {
+        KeyStore keyStore = generateKeyStore();
+        signingKey = (RSAPrivateKey) keyStore.getKey(KEY_ALIAS, KEY_PASSWORD);
+        HttpServer google = startGoogleStub(pem(keyStore.getCertificate(KEY_ALIAS).getEncoded()));
+
+        Result platform;
+        Result virtual;
+        try {
+            platform = run(google, false);
+            virtual = run(google, true);
+        } finally {
+            google.stop(0);
+        }
+
+        String summary = String.format("%d client, %d%% Google (%d ms), %d%% profile | platform: %s | virtual: %s",
+                CLIENTS, GOOGLE_PERCENT, GOOGLE_LATENCY_MS, PROFILE_PERCENT, platform, virtual);
+        log.info(summary);
+        assertEquals(0, platform.errors, summary);
+        assertEquals(0, virtual.errors, summary);
+        assertTrue(virtual.throughput >= platform.throughput, summary);
+        assertTrue(virtual.p99Millis <= platform.p99Millis, summary);
+    }
+
+    private Result run(HttpServer google, boolean virtual) throws Exception {
+        String prefix = (virtual ? "virtual-" : "platform-") + System.currentTimeMillis();
+        String googleUri = "http://127.0.0.1:" + google.getAddress().getPort();
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BeApplication.class)
+                .properties(settings(prefix, googleUri, virtual))
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI base = URI.create("http://127.0.0.1:" + port);
+
+            String[] emails = seedUsers(context, prefix);
+            for (int i = 0; i < GOOGLE_USERS; i++) {
+                idTokens[i] = idToken(googleEmail(i, prefix));
+            }
+            String[] tokens = new String[USERS];
+            JwtService jwtService = context.getBean(JwtService.class);
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            for (int i = 0; i < USERS; i++) {
+                tokens[i] = jwtService.generateToken(userRepository.findByEmail(emails[i]).orElseThrow());
+            }
+
+            List<Client> clients = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < CLIENTS; i++) {
+                    Client client = new Client(base, emails, tokens);
+                    clients.add(client);
+                    executor.execute(client::run);
+                }
+
+                // Bỏ các mẫu trong lúc JIT còn đang biên dịch và cache còn trống
+                TimeUnit.SECONDS.sleep(WARMUP_SECONDS);
+                clients.forEach(client -> client.measuring = true);
+                TimeUnit.SECONDS.sleep(DURATION_SECONDS);
+                clients.forEach(client -> client.running = false);
+            }
+
+            long[] latencies = clients.stream()
+                    .flatMapToLong(client -> Arrays.stream(client.latencies, 0, client.samples))
+                    .sorted()
+                    .toArray();
+            return new Result(latencies.length / (double) DURATION_SECONDS,
+                    latencies[latencies.length / 2] / 1_000_000.0,
+                    latencies[(int) (latencies.length * 0.99)] / 1_000_000.0,
+                    clients.stream().mapToLong(client -> client.shed).sum(),
+                    clients.stream().mapToLong(client -> client.errors).sum());
+        }
+    }
+
+    private Map<String, Object> settings(String prefix, String googleUri, boolean virtual) {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put("server.port", 0);
+        settings.put("SPRING_THREADS_VIRTUAL_ENABLED", virtual);
+        settings.put("DB_URL", "jdbc:h2:mem:" + prefix + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        settings.put("DB_USERNAME", "sa");
+        settings.put("DB_PASSWORD", "");
+        settings.put("DB_DRIVER", "org.h2.Driver");
+        settings.put("SPRING_JPA_HIBERNATE_DDL_AUTO", "create-drop");
+        settings.put("SPRING_JPA_SHOW_SQL", false);
+        settings.put("SPRING_JPA_DATABASE_PLATFORM", "org.hibernate.dialect.H2Dialect");
+        settings.put("REDIS_HOST", "127.0.0.1");
+        settings.put("REDIS_PORT", 6379);
+        settings.put("REDIS_PASSWORD", "");
+        settings.put("REDIS_SSL_ENABLED", false);
+        // Không có request nào gửi mail
+        settings.put("MAIL_HOST", "127.0.0.1");
+        settings.put("MAIL_PORT", 25);
+        settings.put("MAIL_USERNAME", "");
+        settings.put("MAIL_PASSWORD", "");
+        settings.put("MAIL_SMTP_AUTH", false);
+        settings.put("MAIL_SMTP_STARTTLS_ENABLE", false);
+        settings.put("JWT_SECRET", "load-test-secret");
+        settings.put("JWT_ACCESS_EXPIRATION", 900_000);
+        settings.put("GOOGLE_CLIENT_ID", CLIENT_ID);
+        settings.put("GOOGLE_CLIENT_SECRET", "load-test");
+        settings.put("GOOGLE_REDIRECT_URI", "http://127.0.0.1/callback");
+        settings.put("GOOGLE_TOKEN_URI", googleUri + "/token");
+        settings.put("GOOGLE_CERTS_URI", googleUri + "/certs");
+        // Request chờ trong hàng đợi của CPU không được tính là Google không trả lời
+        settings.put("GOOGLE_HTTP_READ_TIMEOUT_MS", 3 * GOOGLE_LATENCY_MS);
+        // Đo khả năng chịu tải, không đo giới hạn tần suất; BCrypt cost thấp để CPU không lấn át phần chờ I/O
+        settings.put("RATE_LIMIT_ENABLED", false);
+        settings.put("SECURITY_PASSWORD_BCRYPT_STRENGTH", 4);
+        settings.put("GAME_JOURNAL_ENABLED", false);
+        settings.put("AVATAR_STORAGE_DIR", tempDir.resolve("avatars-" + prefix).toString());
+        return settings;
+    }
+
+    /**
+     * Tạo người dùng qua đường nhập hàng loạt của ứng dụng (mật khẩu đã hash với cost đang cấu hình).
+     * Tài khoản Google cũng được tạo sẵn để lần đăng nhập đầu không tranh nhau insert cùng email.
+     */
+    private String[] seedUsers(ConfigurableApplicationContext context, String prefix) throws IOException {
+        String hash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        String[] emails = new String[USERS];
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < USERS; i++) {
+            emails[i] = "user-" + i + "-" + prefix + "@load.test";
+            ndjson.append("{\"email\":\"").append(emails[i])
+                    .append("\",\"password\":\"").append(hash)
+                    .append("\",\"fullName\":\"Người dùng ").append(i).append("\"}\n");
+        }
+        for (int i = 0; i < GOOGLE_USERS; i++) {
+            ndjson.append("{\"email\":\"").append(googleEmail(i, prefix)).append("\",\"authProvider\":\"GOOGLE\"}\n");
+        }
+        InputStream input = new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8));
+        assertEquals(USERS + GOOGLE_USERS, context.getBean(UserTransferService.class).importNdjson(input).getImported());
+        return emails;
+    }
+
+    private static String googleEmail(int index, String prefix) {
+        return "google-" + index + "-" + prefix + "@load.test";
+    }
+
+    /**
+     * Token endpoint và certs endpoint giả lập của Google.
+     */
+    private HttpServer startGoogleStub(String certificate) throws IOException {
+        // Mặc định server đóng kết nối rảnh vượt quá 200, client của ứng dụng dùng lại đúng kết nối đó sẽ gặp EOF
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(CLIENTS));
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        String certs = "{\"" + KEY_ALIAS + "\":\"" + certificate.replace("\n", "\\n") + "\"}";
+        server.createContext("/certs", exchange -> {
+            exchange.getResponseHeaders().add("Cache-Control", "public, max-age=3600");
+            respond(exchange, certs);
+        });
+        server.createContext("/token", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            int index = Integer.parseInt(formParam(body, "code").substring(1));
+            try {
+                TimeUnit.MILLISECONDS.sleep(GOOGLE_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, "{\"access_token\":\"stub\",\"id_token\":\"" + idTokens[index] + "\"}");
+        });
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (exchange) {
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    private static String formParam(String body, String name) {
+        for (String pair : body.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        throw new IllegalArgumentException("Thiếu tham số " + name);
+    }
+
+    private String idToken(String email) {
+        Instant now = Instant.now();
+        return JWT.create()
+                .withKeyId(KEY_ALIAS)
+                .withIssuer("https://accounts.google.com")
+                .withAudience(CLIENT_ID)
+                .withSubject(email)
+                .withClaim("email", email)
+                .withClaim("email_verified", true)
+                .withClaim("name", "Google " + email)
+                .withIssuedAt(now)
+                .withExpiresAt(now.plusSeconds(3600))
+                .sign(Algorithm.RSA256(null, signingKey));
+    }
+
+    /**
+     * Google công bố public key dạng chứng chỉ X.509; JDK không có API tạo chứng chỉ nên dùng keytool.
+     */
+    private KeyStore generateKeyStore() throws Exception {
+        Path file = tempDir.resolve("google.p12");
+        Process keytool = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                "-genkeypair", "-alias", KEY_ALIAS, "-keyalg", "RSA", "-keysize", "2048", "-validity", "1",
+                "-dname", "CN=google-stub", "-storetype", "PKCS12", "-keystore", file.toString(),
+                "-storepass", new String(KEY_PASSWORD), "-keypass", new String(KEY_PASSWORD))
+                .inheritIO()
+                .start();
+        assertEquals(0, keytool.waitFor());
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream input = new FileInputStream(file.toFile())) {
+            keyStore.load(input, KEY_PASSWORD);
+        }
+        return keyStore;
+    }
+
+    private static String pem(byte[] der) {
+        return "-----BEGIN CERTIFICATE-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der)
+                + "\n-----END CERTIFICATE-----\n";
+    }
+
+    /**
+     * Client vòng kín: gửi request kế tiếp ngay khi nhận được phản hồi.
+     */
+    private final class Client {
+
+        final URI base;
+        final String[] emails;
+        final String[] tokens;
+        long[] latencies = new long[1 << 10];
+        int samples;
+        long shed;
+        long errors;
+        volatile boolean measuring;
+        volatile boolean running = true;
+
+        Client(URI base, String[] emails, String[] tokens) {
+            this.base = base;
+            this.emails = emails;
+            this.tokens = tokens;
+        }
+
+        void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (running) {
+                int dice = random.nextInt(100);
+                HttpRequest request;
+                if (dice < GOOGLE_PERCENT) {
+                    request = post("/api/auth/login/google",
+                            "{\"authorizationCode\":\"g" + random.nextInt(GOOGLE_USERS) + "\"}");
+                } else if (dice < GOOGLE_PERCENT + PROFILE_PERCENT) {
+                    request = HttpRequest.newBuilder(base.resolve("/api/profile"))
+                            .header("Authorization", "Bearer " + tokens[random.nextInt(USERS)])
+                            .timeout(Duration.ofSeconds(30))
+                            .GET()
+                            .build();
+                } else {
+                    request = post("/api/auth/login", "{\"email\":\"" + emails[random.nextInt(USERS)]
+                            + "\",\"password\":\"" + PASSWORD + "\"}");
+                }
+
+                long start = System.nanoTime();
+                int status;
+                try {
+                    status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (IOException e) {
+                    status = -1;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long latency = System.nanoTime() - start;
+
+                if (!measuring || !running) {
+                    continue;
+                }
+                if (status == 200) {
+                    if (samples == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, samples * 2);
+                    }
+                    latencies[samples++] = latency;
+                } else if (status == 503) {
+                    // Pool BCrypt đầy: ứng dụng chủ động từ chối thay vì xếp hàng
+                    shed++;
+                } else {
+                    errors++;
+                }
+            }
+        }
+
+        private HttpRequest post(String path, String json) {
+            return HttpRequest.newBuilder(base.resolve(path))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+        }
+    }
+
+    private record Result(double throughput, double p50Millis, double p99Millis, long shed, long errors) {
+
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s, p50 %.1f ms, p99 %.1f ms, %d bị từ chối (503), %d lỗi",
+                    throughput, p50Millis, p99Millis, shed, errors);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.be.config;
+
+import com.example.be.service.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RateLimitFilterTest {
+
+    private static final String BODY = "{\"email\":\" User@Example.com \",\"password\":\"secret\"}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void rejectsWith429AndRetryAfterWhenLimitIsExceeded() throws Exception {
+        RateLimiter rateLimiter = mock(RateLimiter.class);
+        when(rateLimiter.tryAcquire("10.0.0.1", "user@example.com")).thenReturn(1_500L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter(rateLimiter).doFilter(loginRequest(), response, chain);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        // Làm tròn lên theo giây
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(response.getContentAsString(StandardCharsets.UTF_8).contains("\"success\":false"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void passesCachedBodyToControllerWhenAllowed() throws Exception {
+        RateLimiter rateLimiter = mock(RateLimiter.class);
+        when(rateLimiter.tryAcquire("10.0.0.1", "user@example.com")).thenReturn(0L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter(rateLimiter).doFilter(loginRequest(), response, chain);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertNotNull(chain.getRequest());
+        // Body đã bị filter đọc vẫn đọc lại được ở controller
+        assertEquals(BODY, new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        verify(rateLimiter).tryAcquire("10.0.0.1", "user@example.com");
+    }
+
+    @Test
+    void limitsChunkedBodyByEmail() throws Exception {
+        RateLimiter rateLimiter = mock(RateLimiter.class);
+        when(rateLimiter.tryAcquire("10.0.0.1", "user@example.com")).thenReturn(0L);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter(rateLimiter).doFilter(chunked(loginRequest()), new MockHttpServletResponse(), chain);
+
+        verify(rateLimiter).tryAcquire("10.0.0.1", "user@example.com");
+        // Controller đọc body bất đồng bộ qua ReadListener
+        AtomicBoolean allDataRead = new AtomicBoolean();
+        ServletInputStream input = chain.getRequest().getInputStream();
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                assertEquals(BODY, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allDataRead.set(true);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+        assertTrue(allDataRead.get());
+    }
+
+    @Test
+    void rejectsChunkedBodyOverLimit() throws Exception {
+        RateLimiter rateLimiter = mock(RateLimiter.class);
+        when(rateLimiter.tryAcquire("10.0.0.1", null)).thenReturn(0L);
+        MockHttpServletRequest request = loginRequest();
+        request.setContent(new byte[RateLimitFilter.MAX_BODY_BYTES + 1]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter(rateLimiter).doFilter(chunked(request), response, chain);
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE.value(), response.getStatus());
+        assertNull(chain.getRequest());
+        verify(rateLimiter).tryAcquire("10.0.0.1", null);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failsOpenWhenRedisIsUnavailable() throws Exception {
+        // Mọi lệnh Redis đều lỗi kết nối
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class, invocation -> {
+            throw new RedisConnectionFailureException("Redis down");
+        });
+        RateLimiter rateLimiter = new RateLimiter(redisTemplate, new SimpleMeterRegistry(), 1, 1, 1, 1, 100, 100, 100);
+        RateLimitFilter filter = filter(rateLimiter);
+
+        // Vượt giới hạn Redis (capacity 1) nhưng Redis lỗi nên chỉ còn bucket cục bộ
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(loginRequest(), response, chain);
+            assertEquals(HttpStatus.OK.value(), response.getStatus());
+            assertNotNull(chain.getRequest());
+        }
+    }
+
+    @Test
+    void ignoresRequestsOutsideAuthApi() throws Exception {
+        RateLimiter rateLimiter = mock(RateLimiter.class);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/profile");
+        request.setServletPath("/api/profile");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter(rateLimiter).doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        verify(rateLimiter, never()).tryAcquire(any(), any());
+    }
+
+    private RateLimitFilter filter(RateLimiter rateLimiter) {
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter, objectMapper);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        return filter;
+    }
+
+    /**
+     * Request không có Content-Length (Transfer-Encoding: chunked).
+     */
+    private static HttpServletRequest chunked(HttpServletRequest request) {
+        return new HttpServletRequestWrapper(request) {
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+    }
+
+    private static MockHttpServletRequest loginRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setServletPath("/api/auth/login");
+        request.setRemoteAddr("10.0.0.1");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
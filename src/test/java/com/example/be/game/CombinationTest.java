@@ -0,0 +1,84 @@
+package com.example.be.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CombinationTest {
+
+    @Test
+    void classifiesCombinations() {
+        assertEquals(Combination.SINGLE, type("2♥"));
+        assertEquals(Combination.PAIR, type("7♠ 7♥"));
+        assertEquals(Combination.TRIPLE, type("K♠ K♣ K♦"));
+        assertEquals(Combination.FOUR_OF_A_KIND, type("9♠ 9♣ 9♦ 9♥"));
+        assertEquals(Combination.STRAIGHT, type("10♠ J♦ Q♣ K♥ A♠"));
+        assertEquals(Combination.PAIR_SEQUENCE, type("4♠ 4♣ 5♦ 5♥ 6♠ 6♥"));
+        assertEquals(5, Combination.length(Combination.classify(Cards.parse("10♠ J♦ Q♣ K♥ A♠"))));
+
+        // Sảnh và đôi thông không được chứa heo, phải liên tiếp và đủ 3 rank
+        assertEquals(Combination.INVALID, type("K♠ A♦ 2♣"));
+        assertEquals(Combination.INVALID, type("3♠ 4♦ 6♣"));
+        assertEquals(Combination.INVALID, type("3♠ 4♦"));
+        assertEquals(Combination.INVALID, type("4♠ 4♣ 5♦ 5♥ 6♠"));
+        assertEquals(Combination.INVALID, type("Q♠ Q♣ K♦ K♥ A♠ A♥ 2♠ 2♥"));
+    }
+
+    @Test
+    void comparesSameTypeByHighestCard() {
+        assertTrue(beats("3♥", "3♦"));
+        assertFalse(beats("3♥", "4♠"));
+        assertTrue(beats("8♠ 8♥", "8♣ 8♦"));
+        assertTrue(beats("5♠ 6♠ 7♥", "5♦ 6♦ 7♦"));
+        // Khác độ dài thì không so được
+        assertFalse(beats("5♠ 6♠ 7♥ 8♠", "5♦ 6♦ 7♦"));
+        assertFalse(beats("9♠ 9♥", "3♠"));
+    }
+
+    @Test
+    void chopsTwosAndBombs() {
+        String threePairs = "3♠ 3♣ 4♦ 4♥ 5♠ 5♥";
+        String fourPairs = "6♠ 6♣ 7♦ 7♥ 8♠ 8♥ 9♠ 9♥";
+        String quads = "J♠ J♣ J♦ J♥";
+
+        assertTrue(beats(threePairs, "2♥"));
+        assertTrue(beats(quads, "2♥"));
+        assertFalse(beats(threePairs, "2♠ 2♥"));
+        assertTrue(beats(quads, "2♠ 2♥"));
+        assertTrue(beats(fourPairs, "2♠ 2♥"));
+
+        assertTrue(beats(quads, threePairs));
+        assertTrue(beats(fourPairs, threePairs));
+        assertTrue(beats(fourPairs, quads));
+        assertFalse(beats(quads, fourPairs));
+        assertFalse(beats(threePairs, quads));
+        assertFalse(beats(quads, "A♥"));
+    }
+
+    @Test
+    void dealsDisjointHands() {
+        long[] hands = new long[Deck.PLAYERS];
+        Deck.deal(new SplittableRandom(42), hands);
+
+        long all = 0;
+        for (long hand : hands) {
+            assertEquals(Deck.HAND_SIZE, Cards.count(hand));
+            assertEquals(0, all & hand);
+            all |= hand;
+        }
+        assertEquals(Cards.FULL_DECK, all);
+        assertEquals("3♠ 10♥ 2♦", Cards.toString(Cards.parse("2♦ 10♥ 3♠")));
+    }
+
+    private static int type(String cards) {
+        return Combination.type(Combination.classify(Cards.parse(cards)));
+    }
+
+    private static boolean beats(String play, String target) {
+        return Combination.beats(Combination.classify(Cards.parse(play)), Combination.classify(Cards.parse(target)));
+    }
+}
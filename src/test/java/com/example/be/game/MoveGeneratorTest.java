@@ -0,0 +1,89 @@
+package com.example.be.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoveGeneratorTest {
+
+    /**
+     * So với cách vét cạn: duyệt mọi tập con của tay bài, giữ những tập hợp lệ và chặn được bộ trên bàn.
+     */
+    @Test
+    void matchesBruteForceEnumeration() {
+        SplittableRandom random = new SplittableRandom(7);
+        long[] hands = new long[Deck.PLAYERS];
+        long[] buffer = new long[MoveGenerator.MAX_MOVES];
+        int[] cards = new int[Deck.HAND_SIZE];
+        // Các bộ hay bị chặt, ít khi xuất hiện nếu chỉ lấy ngẫu nhiên
+        int[] chopTargets = {
+                Combination.classify(Cards.parse("2♥")),
+                Combination.classify(Cards.parse("2♠ 2♥")),
+                Combination.classify(Cards.parse("3♠ 3♣ 4♦ 4♥ 5♠ 5♥")),
+                Combination.classify(Cards.parse("5♠ 5♣ 5♦ 5♥")),
+                Combination.classify(Cards.parse("3♠ 3♣ 4♦ 4♥ 5♠ 5♥ 6♠ 6♥")),
+        };
+
+        for (int round = 0; round < 400; round++) {
+            Deck.deal(random, hands);
+            long hand = hands[0];
+            int target = switch (round % 4) {
+                case 0 -> Combination.INVALID;
+                case 1 -> chopTargets[random.nextInt(chopTargets.length)];
+                default -> randomPlay(hands[1], random);
+            };
+
+            int count = MoveGenerator.generate(hand, target, buffer);
+            long[] generated = Arrays.copyOf(buffer, count);
+            Arrays.sort(generated);
+
+            assertArrayEquals(bruteForce(hand, target, cards), generated,
+                    () -> Cards.toString(hand) + " vs " + target);
+        }
+    }
+
+    @Test
+    void staysWithinBufferForDenseHands() {
+        long[] buffer = new long[MoveGenerator.MAX_MOVES];
+        // Tay nhiều nước nhất tìm được: 4 rank liền nhau, mỗi rank 3-4 lá
+        long hand = Cards.parse("10♠ 10♣ 10♦ J♠ J♣ J♦ Q♠ Q♣ Q♦ Q♥ K♠ K♣ K♦");
+        int count = MoveGenerator.generate(hand, Combination.INVALID, buffer);
+        assertTrue(count < MoveGenerator.MAX_MOVES);
+    }
+
+    private static long[] bruteForce(long hand, int target, int[] cards) {
+        int size = 0;
+        for (long remaining = hand; remaining != 0; remaining &= remaining - 1) {
+            cards[size++] = Long.numberOfTrailingZeros(remaining);
+        }
+
+        long[] moves = new long[1 << size];
+        int count = 0;
+        for (int subset = 1; subset < 1 << size; subset++) {
+            long move = 0;
+            for (int i = 0; i < size; i++) {
+                if ((subset & (1 << i)) != 0) {
+                    move |= Cards.bit(cards[i]);
+                }
+            }
+            int combination = Combination.classify(move);
+            if (combination != Combination.INVALID
+                    && (target == Combination.INVALID || Combination.beats(combination, target))) {
+                moves[count++] = move;
+            }
+        }
+        long[] result = Arrays.copyOf(moves, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static int randomPlay(long hand, SplittableRandom random) {
+        long[] buffer = new long[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(hand, Combination.INVALID, buffer);
+        return Combination.classify(buffer[random.nextInt(count)]);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.be.game.journal;
+
+import com.example.be.game.Cards;
+import com.example.be.game.Combination;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameJournalTest {
+
+    private static final String[] EMAILS = {"a@example.com", "b@example.com", "c@example.com", "d@example.com"};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysInProgressTablesFromLastBaseline() throws Exception {
+        GameJournal journal = open(DataSize.ofMegabytes(1));
+        long threeOfSpades = Cards.parse("3♠");
+        long pairOfFives = Cards.parse("5♠ 5♥");
+        journal.deal("r1", deal(threeOfSpades | pairOfFives));
+        journal.play("r1", 0, threeOfSpades, false, 1, false);
+        journal.pass("r1", 1, 2, false);
+        journal.pass("r1", 2, 3, false);
+        journal.pass("r1", 3, 0, true);
+        journal.play("r1", 0, pairOfFives, false, 1, false);
+        // Ván đã kết thúc thì không cần khôi phục
+        journal.deal("r2", deal(threeOfSpades));
+        journal.win("r2", 0);
+        journal.shutdown();
+
+        Map<String, RoomSnapshot> recovered = open(DataSize.ofMegabytes(1)).recover();
+
+        assertEquals(List.of("r1"), List.copyOf(recovered.keySet()));
+        RoomSnapshot table = recovered.get("r1");
+        assertArrayEquals(EMAILS, table.emails());
+        assertEquals(0, table.hands()[0]);
+        assertEquals(1, table.turn());
+        assertEquals(0, table.lastPlayer());
+        assertEquals(0, table.passedMask());
+        assertEquals(Combination.classify(pairOfFives), table.trick());
+        assertFalse(table.firstPlay());
+    }
+
+    @Test
+    void stopsAtTornEntry() throws Exception {
+        GameJournal journal = open(DataSize.ofMegabytes(1));
+        journal.deal("r1", deal(Cards.parse("3♠ 4♠")));
+        journal.play("r1", 0, Cards.parse("3♠"), false, 1, false);
+        journal.shutdown();
+
+        // Làm hỏng byte cuối của bản ghi cuối như khi máy sập lúc đang ghi
+        Path segment = segments(dir).getFirst();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int end = lastEntryEnd(data);
+            data.put(end - 1, (byte) (data.get(end - 1) ^ 0xFF));
+        }
+
+        RoomSnapshot table = open(DataSize.ofMegabytes(1)).recover().get("r1");
+        assertEquals(Cards.parse("3♠ 4♠"), table.hands()[0]);
+        assertTrue(table.firstPlay());
+    }
+
+    @Test
+    void compactionRetiresSegmentsOnceLongGamesSnapshot() throws Exception {
+        GameJournal journal = open(DataSize.ofKilobytes(32));
+        List<String> requested = new ArrayList<>();
+        journal.onSnapshotRequest(requested::add);
+        journal.deal("long", deal(Cards.parse("3♠")));
+        // Nhiều ván ngắn làm journal sang vài segment mới
+        for (int i = 0; i < 1_000; i++) {
+            journal.deal("short-" + i, deal(Cards.parse("3♠")));
+            journal.win("short-" + i, 0);
+        }
+        compact(journal);
+        assertTrue(segments(dir).size() > 2);
+        assertEquals(List.of("long"), requested);
+
+        journal.snapshot("long", deal(Cards.parse("3♠")));
+        compact(journal);
+        assertEquals(1, segments(dir).size());
+        journal.shutdown();
+
+        assertEquals(List.of("long"), List.copyOf(open(DataSize.ofKilobytes(32)).recover().keySet()));
+    }
+
+    private GameJournal open(DataSize segmentSize) throws IOException {
+        return new GameJournal(new SimpleMeterRegistry(), true, dir.toString(), segmentSize, 10, 64, 60_000, false);
+    }
+
+    private static RoomSnapshot deal(long firstHand) {
+        return new RoomSnapshot(EMAILS.clone(), new long[]{firstHand, 0, 0, 0}, 0, 0, 0, Combination.INVALID, true);
+    }
+
+    /**
+     * Chạy trên luồng nền của journal, sau các tác vụ đóng segment đã xếp hàng.
+     */
+    private static void compact(GameJournal journal) throws Exception {
+        journal.background.submit(() -> {
+            journal.compact();
+            return null;
+        }).get();
+    }
+
+    private static List<Path> segments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.toString().endsWith(GameJournal.SEGMENT_SUFFIX)).sorted().toList();
+        }
+    }
+
+    private static int lastEntryEnd(ByteBuffer data) {
+        int position = GameJournal.SEGMENT_HEADER;
+        int length;
+        while ((length = Short.toUnsignedInt(data.getShort(position))) != 0) {
+            position += GameJournal.ENTRY_HEADER + length;
+        }
+        return position;
+    }
+}
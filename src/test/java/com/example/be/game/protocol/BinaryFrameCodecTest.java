@@ -0,0 +1,64 @@
+package com.example.be.game.protocol;
+
+import com.example.be.game.Cards;
+import com.example.be.game.Combination;
+import com.example.be.game.room.RoomEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryFrameCodecTest {
+
+    @Test
+    void eventsRoundTripWithoutRoomId() {
+        long cards = Cards.parse("10♠ J♠ Q♦ K♥ A♣ 2♥");
+        List<RoomEvent> events = List.of(
+                new RoomEvent(RoomEvent.JOINED, null, 2, "người.chơi@example.com", null, null, null, null, null, null, null),
+                new RoomEvent(RoomEvent.DEALT, null, 3, null, Cards.FULL_DECK, null, null, null, null, null, null),
+                new RoomEvent(RoomEvent.TURN, null, 1, null, null, null, null, null, true, null, null),
+                new RoomEvent(RoomEvent.PLAYED, null, 0, null, cards, Combination.classify(Cards.parse("10♠ J♠ Q♦ K♥ A♣")),
+                        7, 1, false, null, null),
+                new RoomEvent(RoomEvent.PLAYED, null, 3, null, cards, Combination.classify(Cards.parse("2♥")),
+                        0, null, null, null, null),
+                new RoomEvent(RoomEvent.PASSED, null, 2, null, null, null, null, 0, true, null, null),
+                new RoomEvent(RoomEvent.FINISHED, null, 3, null, null, null, null, null, null, null, null),
+                new RoomEvent(RoomEvent.SYNC, null, 2, null, null, Combination.classify(Cards.parse("9♣ 9♥")), null,
+                        3, false, null, List.of(0, 11, 5, 13)),
+                new RoomEvent(RoomEvent.SYNC, null, 1, null, null, Combination.INVALID, null,
+                        1, true, null, List.of(13, 8, 13, 13)),
+                RoomEvent.error(null, "Chưa tới lượt của bạn")
+        );
+
+        for (RoomEvent event : events) {
+            assertEquals(event, BinaryFrameCodec.decodeEvent(ByteBuffer.wrap(BinaryFrameCodec.encode(event))));
+        }
+        // [phiên bản][loại][seat][cards:7][combination:2][remaining][lượt]
+        assertEquals(14, BinaryFrameCodec.encode(events.get(3)).length);
+        // [phiên bản][loại][seat đánh cuối][combination:2][remaining:4][lượt]
+        assertEquals(10, BinaryFrameCodec.encode(events.get(7)).length);
+    }
+
+    @Test
+    void requestsRoundTrip() {
+        List<GameRequest> requests = List.of(
+                new GameRequest(GameRequest.JOIN, "bàn-1", null),
+                new GameRequest(GameRequest.LEAVE, null, null),
+                new GameRequest(GameRequest.PLAY, null, Cards.parse("3♠ 3♥")),
+                new GameRequest(GameRequest.PASS, null, null)
+        );
+
+        for (GameRequest request : requests) {
+            assertEquals(request, BinaryFrameCodec.decodeRequest(ByteBuffer.wrap(BinaryFrameCodec.encodeRequest(request))));
+        }
+    }
+
+    @Test
+    void rejectsUnknownVersionAndTruncatedFrames() {
+        assertThrows(IllegalArgumentException.class, () -> BinaryFrameCodec.decodeRequest(ByteBuffer.wrap(new byte[]{2, 4})));
+        assertThrows(IllegalArgumentException.class, () -> BinaryFrameCodec.decodeRequest(ByteBuffer.wrap(new byte[]{1, 3, 0})));
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.be.game.room;
+
+import com.example.be.game.Combination;
+import com.example.be.game.MoveGenerator;
+import com.example.be.game.journal.GameJournal;
+import com.example.be.game.protocol.BinaryFrameCodec;
+import com.example.be.game.timer.HashedWheelTimer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mô phỏng nhiều phòng 4 bot chơi liên tục qua {@link RoomManager} (không qua mạng). Mỗi bot giải mã frame
+ * nhị phân trên virtual thread riêng, chọn nước đi bằng {@link MoveGenerator}; đo thời gian từ lúc gửi nước đánh tới lúc
+ * nhận lại sự kiện {@code played} (không tính thời gian suy nghĩ), có ghi {@link GameJournal} như khi chạy thật.
+ * Chạy bằng: mvn test -Pload-test
+ */
+@Slf4j
+@Tag("load")
+class RoomLoadTest {
+
+    // Bot chạy chung máy với server nên số phòng tỉ lệ theo số core (mỗi phòng ~15 nước/s)
+    private static final int ROOMS = 250 * Runtime.getRuntime().availableProcessors();
+    private static final long WARMUP_SECONDS = 3;
+    private static final long DURATION_SECONDS = 10;
+    // Thời gian "suy nghĩ" của bot trước mỗi nước, để tải giống người chơi thật thay vì dồn hết CPU
+    private static final int THINK_MIN_MS = 20;
+    private static final int THINK_MAX_MS = 80;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private volatile boolean measuring;
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void moveRoundTripStaysUnderTenMillisAtP99() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        HashedWheelTimer timer = new HashedWheelTimer(meterRegistry, 100, 512);
+        GameJournal journal = new GameJournal(meterRegistry, true, journalDir.toString(), DataSize.ofMegabytes(64),
+                10, 64, 60_000, false);
+        RoomManager manager = new RoomManager(objectMapper, meterRegistry, timer, journal, 0, 20_000);
+        List<Bot> bots = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int room = 0; room < ROOMS; room++) {
+                for (int player = 0; player < RoomActor.SEATS; player++) {
+                    Bot bot = new Bot("room-" + room, "bot" + player + "@room" + room + ".test", manager);
+                    bots.add(bot);
+                    executor.execute(bot::run);
+                    manager.join(bot.room, bot);
+                }
+            }
+
+            // Bỏ các mẫu trong lúc JIT còn đang biên dịch
+            TimeUnit.SECONDS.sleep(WARMUP_SECONDS);
+            measuring = true;
+            TimeUnit.SECONDS.sleep(DURATION_SECONDS);
+            bots.forEach(Bot::stop);
+        }
+        manager.shutdown();
+        timer.shutdown();
+
+        long[] latencies = bots.stream()
+                .flatMapToLong(bot -> Arrays.stream(bot.latencies, 0, bot.samples))
+                .sorted()
+                .toArray();
+        long errors = bots.stream().mapToLong(bot -> bot.errors).sum();
+        long games = bots.stream().mapToLong(bot -> bot.wins).sum();
+        double p50 = latencies[latencies.length / 2] / 1_000_000.0;
+        double p99 = latencies[(int) (latencies.length * 0.99)] / 1_000_000.0;
+
+        String summary = String.format("%d phòng: %d nước đánh (%.0f/s), %d ván, p50 %.2f ms, p99 %.2f ms, "
+                        + "tick lag max %.2f ms, ghi journal trung bình %.2f µs",
+                ROOMS, latencies.length, latencies.length / (double) DURATION_SECONDS, games, p50, p99,
+                meterRegistry.get("game.timer.tick.lag").timer().max(TimeUnit.MILLISECONDS),
+                meterRegistry.get("game.journal.append.latency").timer().mean(TimeUnit.MICROSECONDS));
+        log.info(summary);
+        assertEquals(0, errors, summary);
+        assertTrue(games > 0, summary);
+        assertTrue(p99 < 10, summary);
+    }
+
+    /**
+     * Bot luôn đánh nước đầu tiên MoveGenerator trả về (nhỏ nhất); bỏ lượt khi không chặn được.
+     */
+    private final class Bot implements RoomMember {
+
+        private static final byte[] STOP = new byte[0];
+
+        final String room;
+        final String email;
+        final RoomManager manager;
+        final BlockingQueue<byte[]> inbox = new LinkedBlockingQueue<>();
+        final long[] moves = new long[MoveGenerator.MAX_MOVES];
+        final long[] latencies = new long[1 << 12];
+        int samples;
+        long errors;
+        long wins;
+
+        int seat = -1;
+        long hand;
+        int trick = Combination.INVALID;
+        boolean firstPlay;
+        long sentAt;
+
+        Bot(String room, String email, RoomManager manager) {
+            this.room = room;
+            this.email = email;
+            this.manager = manager;
+        }
+
+        @Override
+        public String email() {
+            return email;
+        }
+
+        @Override
+        public void send(RoomFrame frame) {
+            inbox.offer(frame.binary());
+        }
+
+        void stop() {
+            inbox.offer(STOP);
+        }
+
+        void run() {
+            try {
+                byte[] frame;
+                while ((frame = inbox.take()) != STOP) {
+                    onEvent(BinaryFrameCodec.decodeEvent(ByteBuffer.wrap(frame)));
+                }
+            } catch (Exception e) {
+                errors++;
+            }
+        }
+
+        private void onEvent(RoomEvent event) throws InterruptedException {
+            switch (event.type()) {
+                case RoomEvent.DEALT -> {
+                    seat = event.seat();
+                    hand = event.cards();
+                    trick = Combination.INVALID;
+                    firstPlay = true;
+                }
+                case RoomEvent.TURN -> onTurn(event.seat(), event.lead());
+                case RoomEvent.PLAYED -> {
+                    trick = event.combination();
+                    firstPlay = false;
+                    if (event.seat() == seat) {
+                        hand &= ~event.cards();
+                        if (measuring && samples < latencies.length) {
+                            latencies[samples++] = System.nanoTime() - sentAt;
+                        }
+                    }
+                    onTurn(event.turn(), event.lead());
+                }
+                case RoomEvent.PASSED -> onTurn(event.turn(), event.lead());
+                case RoomEvent.FINISHED -> {
+                    if (event.seat() == seat) {
+                        wins++;
+                    }
+                }
+                case RoomEvent.ERROR -> errors++;
+                default -> {
+                }
+            }
+        }
+
+        private void onTurn(Integer turn, Boolean lead) throws InterruptedException {
+            if (turn == null) {
+                return;
+            }
+            if (lead) {
+                trick = Combination.INVALID;
+            }
+            if (turn == seat) {
+                move();
+            }
+        }
+
+        private void move() throws InterruptedException {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextInt(THINK_MIN_MS, THINK_MAX_MS));
+            int count = MoveGenerator.generate(hand, trick, moves);
+            for (int i = 0; i < count; i++) {
+                // Nước đầu tiên của ván phải có 3♠
+                if (!firstPlay || (moves[i] & RoomActor.THREE_OF_SPADES) != 0) {
+                    sentAt = System.nanoTime();
+                    manager.play(room, this, moves[i]);
+                    return;
+                }
+            }
+            manager.pass(room, this);
+        }
+    }
+}
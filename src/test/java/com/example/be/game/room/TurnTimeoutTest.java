@@ -0,0 +1,59 @@
+package com.example.be.game.room;
+
+import com.example.be.game.journal.GameJournal;
+import com.example.be.game.timer.HashedWheelTimer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TurnTimeoutTest {
+
+    /**
+     * Không ai thao tác: người được đánh tự do tự đánh lá nhỏ nhất, người khác tự bỏ lượt, cho tới khi có người hết bài.
+     */
+    @Test
+    void idlePlayersAreAutoPlayedUntilGameFinishes() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        HashedWheelTimer timer = new HashedWheelTimer(meterRegistry, 1, 64);
+        GameJournal journal = new GameJournal(meterRegistry, false, "unused", DataSize.ofMegabytes(1), 10, 64, 60_000, false);
+        RoomManager manager = new RoomManager(new ObjectMapper(), meterRegistry, timer, journal, 1, 5);
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicInteger errors = new AtomicInteger();
+
+        for (int seat = 0; seat < RoomActor.SEATS; seat++) {
+            String email = "idle" + seat + "@example.com";
+            manager.join("idle", new RoomMember() {
+                @Override
+                public String email() {
+                    return email;
+                }
+
+                @Override
+                public void send(RoomFrame frame) {
+                    switch (frame.event().type()) {
+                        case RoomEvent.FINISHED -> finished.countDown();
+                        case RoomEvent.ERROR -> errors.incrementAndGet();
+                        default -> {
+                        }
+                    }
+                }
+            });
+        }
+
+        try {
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+            assertEquals(0, errors.get());
+        } finally {
+            manager.shutdown();
+            timer.shutdown();
+        }
+    }
+}
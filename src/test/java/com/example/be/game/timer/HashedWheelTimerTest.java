@@ -0,0 +1,73 @@
+package com.example.be.game.timer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedWheelTimerTest {
+
+    // Bánh xe nhỏ để hẹn giờ dài phải quay nhiều vòng
+    private final HashedWheelTimer timer = new HashedWheelTimer(new SimpleMeterRegistry(), 1, 8);
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdown();
+    }
+
+    @Test
+    void firesAfterDeadlineAndSkipsCancelled() throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(11);
+        int total = 3_000;
+        CountDownLatch fired = new CountDownLatch(total - total / 3);
+        AtomicInteger early = new AtomicInteger();
+        AtomicInteger cancelledRuns = new AtomicInteger();
+        List<HashedWheelTimer.Timeout> toCancel = new ArrayList<>();
+
+        for (int i = 0; i < total; i++) {
+            boolean cancel = i % 3 == 0;
+            // Hẹn giờ sẽ bị hủy có hạn đủ xa để chắc chắn hủy trước khi tới hạn
+            long delayMs = cancel ? 200 + random.nextInt(60) : random.nextInt(60);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+            HashedWheelTimer.Timeout timeout = timer.schedule(() -> {
+                if (cancel) {
+                    cancelledRuns.incrementAndGet();
+                }
+                if (System.nanoTime() < deadline) {
+                    early.incrementAndGet();
+                }
+                fired.countDown();
+            }, delayMs, TimeUnit.MILLISECONDS);
+            if (cancel) {
+                toCancel.add(timeout);
+            }
+        }
+        toCancel.forEach(timeout -> assertTrue(timeout.cancel()));
+
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        TimeUnit.MILLISECONDS.sleep(300);
+        assertEquals(0, early.get());
+        assertEquals(0, cancelledRuns.get());
+        assertEquals(0, timer.pendingTimeouts());
+    }
+
+    @Test
+    void cancelAfterExpiryHasNoEffect() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        HashedWheelTimer.Timeout timeout = timer.schedule(fired::countDown, 20, TimeUnit.MILLISECONDS);
+
+        assertTrue(fired.await(1, TimeUnit.SECONDS));
+        assertFalse(timeout.cancel());
+        assertFalse(timeout.isCancelled());
+    }
+}
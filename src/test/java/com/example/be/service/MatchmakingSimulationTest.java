@@ -0,0 +1,160 @@
+package com.example.be.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mô phỏng giờ cao điểm: người chơi vào hàng với tốc độ cố định, hai "node" cùng chạy tick ghép bàn trên một Redis.
+ * Kiểm tra không ai bị xếp hai bàn và đo thời gian từ lúc vào hàng tới lúc được ghép.
+ * Cần Redis thật (REDIS_HOST/REDIS_PORT, mặc định localhost:6379). Chạy bằng: mvn test -Pload-test
+ */
+@Slf4j
+@Tag("load")
+class MatchmakingSimulationTest {
+
+    private static final List<Long> STAKES = List.of(1000L, 5000L, 20000L, 100000L);
+    private static final int JOINS_PER_SECOND = 2_000;
+    private static final int DURATION_SECONDS = 10;
+    private static final long TICK_MS = 200;
+    private static final String EMAIL_PREFIX = "sim-";
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        String host = System.getenv().getOrDefault("REDIS_HOST", "localhost");
+        int port = Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379"));
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        cleanUp();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void seatsEveryPlayerOnceWithinAFewTicks() throws Exception {
+        MatchmakingService node1 = newNode();
+        MatchmakingService node2 = newNode();
+        warmUp(node1, node2);
+        int total = JOINS_PER_SECOND * DURATION_SECONDS;
+        Map<String, Long> joinedAt = new ConcurrentHashMap<>();
+        Map<String, Integer> seatings = new ConcurrentHashMap<>();
+        long[] timeToMatch = new long[total];
+        AtomicInteger matched = new AtomicInteger();
+
+        ScheduledExecutorService ticks = Executors.newScheduledThreadPool(2);
+        for (MatchmakingService node : List.of(node1, node2)) {
+            ticks.scheduleWithFixedDelay(() -> {
+                for (MatchmakingService.MatchedTable table : node.match()) {
+                    long now = System.nanoTime();
+                    for (String email : table.players()) {
+                        seatings.merge(email, 1, Integer::sum);
+                        timeToMatch[matched.getAndIncrement()] = now - joinedAt.get(email);
+                    }
+                }
+            }, 0, TICK_MS, TimeUnit.MILLISECONDS);
+        }
+
+        // Mỗi ms tung một đợt join trên virtual thread để giữ đúng tốc độ mục tiêu
+        long start = System.nanoTime();
+        try (ExecutorService joiners = Executors.newVirtualThreadPerTaskExecutor()) {
+            int perMillisecond = JOINS_PER_SECOND / 1000;
+            for (int i = 0; i < total; i += perMillisecond) {
+                long due = start + TimeUnit.MILLISECONDS.toNanos(i / perMillisecond);
+                long now;
+                while ((now = System.nanoTime()) < due) {
+                    LockSupport.parkNanos(due - now);
+                }
+                for (int j = i; j < i + perMillisecond; j++) {
+                    String email = EMAIL_PREFIX + j + "@example.com";
+                    long stake = STAKES.get(j % STAKES.size());
+                    MatchmakingService node = j % 2 == 0 ? node1 : node2;
+                    joiners.execute(() -> {
+                        joinedAt.put(email, System.nanoTime());
+                        node.join(email, stake);
+                    });
+                }
+            }
+        }
+        double joinRate = total / ((System.nanoTime() - start) / 1_000_000_000.0);
+
+        // Chờ các tick cuối xếp nốt những người còn lại
+        TimeUnit.MILLISECONDS.sleep(3 * TICK_MS);
+        ticks.shutdown();
+        assertTrue(ticks.awaitTermination(5, TimeUnit.SECONDS));
+
+        int seated = matched.get();
+        long[] sorted = Arrays.copyOf(timeToMatch, seated);
+        Arrays.sort(sorted);
+        double p50 = sorted[seated / 2] / 1_000_000.0;
+        double p99 = sorted[(int) (seated * 0.99)] / 1_000_000.0;
+        String summary = String.format("%d join (%.0f/s), %d người được xếp bàn, thời gian chờ p50 %.1f ms, p99 %.1f ms",
+                total, joinRate, seated, p50, p99);
+        log.info(summary);
+
+        assertTrue(seatings.values().stream().allMatch(count -> count == 1), "Có người bị xếp hai bàn");
+        // Mỗi mức cược chỉ còn lại tối đa 3 người chưa đủ bàn
+        assertTrue(total - seated < 4 * STAKES.size(), summary);
+        assertEquals(seatings.size(), seated, summary);
+        assertTrue(p99 < 5 * TICK_MS, summary);
+    }
+
+    /**
+     * Cho JIT và kết nối Lettuce chạy ổn định trước khi đo, rồi xóa sạch hàng chờ.
+     */
+    private void warmUp(MatchmakingService... nodes) throws InterruptedException {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 5 * JOINS_PER_SECOND; i++) {
+                String email = EMAIL_PREFIX + "warmup-" + i + "@example.com";
+                MatchmakingService node = nodes[i % nodes.length];
+                executor.execute(() -> node.join(email, STAKES.get(0)));
+            }
+        }
+        for (MatchmakingService node : nodes) {
+            node.match();
+        }
+        cleanUp();
+    }
+
+    private MatchmakingService newNode() {
+        return new MatchmakingService(redisTemplate, new SimpleMeterRegistry(), STAKES, 400, 10, 600, 60);
+    }
+
+    private void cleanUp() {
+        List<String> keys = new ArrayList<>();
+        STAKES.forEach(stake -> keys.add(MatchmakingService.queueKey(stake)));
+        Set<String> players = redisTemplate.keys(MatchmakingService.PLAYER_PREFIX + EMAIL_PREFIX + "*");
+        keys.addAll(players != null ? players : new HashSet<>());
+        redisTemplate.delete(keys);
+    }
+}
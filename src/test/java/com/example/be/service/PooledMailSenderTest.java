@@ -0,0 +1,187 @@
+package com.example.be.service;
+
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+class PooledMailSenderTest {
+
+    private static final int MESSAGES = 100;
+    private static final long HANDSHAKE_DELAY_MS = 20;
+
+    private SmtpStandIn server;
+    private JavaMailSenderImpl mailSender;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new SmtpStandIn(HANDSHAKE_DELAY_MS);
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(server.port());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+    /**
+     * So sánh thông lượng nên phụ thuộc máy chạy; chạy bằng: mvn test -Pload-test
+     */
+    @Test
+    @Tag("load")
+    void pooledTransportOutperformsConnectionPerMessage() throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            mailSender.send(message(i));
+        }
+        double unpooledRate = rate(start);
+
+        try (PooledMailSender pooled = new PooledMailSender(
+                mailSender.getSession(), "smtp", "localhost", server.port(), null, null,
+                2, Duration.ofMinutes(1), Duration.ofSeconds(5), Duration.ofSeconds(5))) {
+            start = System.nanoTime();
+            for (int i = 0; i < MESSAGES; i++) {
+                pooled.send(message(i));
+            }
+            double pooledRate = rate(start);
+
+            String summary = String.format("SMTP throughput: unpooled %.1f msg/s, pooled %.1f msg/s", unpooledRate, pooledRate);
+            log.info(summary);
+            assertTrue(pooledRate > unpooledRate, summary);
+            assertEquals(MESSAGES + 1, server.connections());
+        }
+        assertEquals(2 * MESSAGES, server.delivered());
+    }
+
+    @Test
+    void sendsBatchOverOneConnection() throws Exception {
+        try (PooledMailSender pooled = new PooledMailSender(
+                mailSender.getSession(), "smtp", "localhost", server.port(), null, null,
+                2, Duration.ofMinutes(1), Duration.ofSeconds(5), Duration.ofSeconds(5))) {
+            pooled.send(message(1), message(2), message(3));
+            assertEquals(1, server.connections());
+            assertEquals(3, server.delivered());
+            assertEquals(1, pooled.idleCount());
+        }
+    }
+
+    private MimeMessage message(int index) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom("noreply@example.com");
+        helper.setTo("user" + index + "@example.com");
+        helper.setSubject("OTP " + index);
+        helper.setText("<p>" + index + "</p>", true);
+        return message;
+    }
+
+    private double rate(long startNanos) {
+        return MESSAGES / ((System.nanoTime() - startNanos) / 1_000_000_000.0);
+    }
+
+    /**
+     * Máy chủ SMTP tối giản; độ trễ lúc chào mô phỏng chi phí TLS/AUTH khi mở kết nối.
+     */
+    private static class SmtpStandIn implements AutoCloseable {
+
+        private final ServerSocket serverSocket = new ServerSocket(0);
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger delivered = new AtomicInteger();
+        private final long handshakeDelayMs;
+
+        SmtpStandIn(long handshakeDelayMs) throws IOException {
+            this.handshakeDelayMs = handshakeDelayMs;
+            executor.submit(this::acceptLoop);
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        int connections() {
+            return connections.get();
+        }
+
+        int delivered() {
+            return delivered.get();
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    executor.submit(() -> handle(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void handle(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+                 OutputStream out = socket.getOutputStream()) {
+                Thread.sleep(handshakeDelayMs);
+                reply(out, "220 localhost ESMTP stand-in");
+
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (command) {
+                        case "EHLO", "HELO" -> reply(out, "250 localhost");
+                        case "DATA" -> {
+                            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                            while ((line = in.readLine()) != null && !line.equals(".")) {
+                                // bỏ qua nội dung email
+                            }
+                            delivered.incrementAndGet();
+                            reply(out, "250 OK");
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 Bye");
+                            return;
+                        }
+                        default -> reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                // kết nối bị đóng
+            }
+        }
+
+        private void reply(OutputStream out, String line) throws IOException {
+            out.write((line + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            executor.shutdownNow();
+        }
+    }
+}
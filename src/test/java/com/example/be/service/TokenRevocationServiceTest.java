@@ -0,0 +1,94 @@
+package com.example.be.service;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    private static final long ACCESS_EXPIRATION_MS = TimeUnit.MINUTES.toMillis(15);
+    private static final String EMAIL = "user@example.com";
+
+    private final Algorithm algorithm = Algorithm.HMAC256("test-secret");
+    private ZSetOperations<String, String> zSetOperations;
+    private TokenRevocationService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        zSetOperations = mock(ZSetOperations.class);
+        HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(Map.of());
+        service = new TokenRevocationService(redisTemplate, ACCESS_EXPIRATION_MS, 1_000);
+    }
+
+    @Test
+    void revokeAllBlocksEarlierTokensButNotOnesIssuedRightAfter() {
+        long before = System.currentTimeMillis();
+        service.revokeAll(EMAIL);
+        long after = System.currentTimeMillis();
+
+        assertTrue(service.isRevoked(token("old", before - 1)));
+        // Cùng giây với mốc thu hồi (iat giống nhau) nhưng cấp sau đó: phải còn hiệu lực
+        assertFalse(service.isRevoked(token("new", after + 1)));
+    }
+
+    @Test
+    void revokedTokenIsAnsweredFromMemory() {
+        DecodedJWT jwt = token("jti-1", System.currentTimeMillis());
+        service.revoke(jwt);
+
+        assertTrue(service.isRevoked(jwt));
+        assertFalse(service.isRevoked(token("jti-2", System.currentTimeMillis())));
+        verify(zSetOperations, never()).score(anyString(), eq("jti-1"));
+    }
+
+    @Test
+    void revocationArrivingDuringSyncIsKept() {
+        DecodedJWT jwt = token("jti-during-sync", System.currentTimeMillis());
+        long expiresAt = jwt.getExpiresAtAsInstant().getEpochSecond();
+        // Thông báo pub/sub tới sau khi sync đã đọc Redis nhưng trước khi đổi snapshot
+        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble())).thenAnswer(invocation -> {
+            service.onRevocationMessage("jti:jti-during-sync:" + expiresAt);
+            return Set.of();
+        });
+
+        service.sync();
+
+        assertTrue(service.isRevoked(jwt));
+        verify(zSetOperations, never()).score(anyString(), eq("jti-during-sync"));
+    }
+
+    private DecodedJWT token(String jti, long issuedAtMillis) {
+        return JWT.decode(JWT.create()
+                .withJWTId(jti)
+                .withSubject(EMAIL)
+                .withIssuedAt(new Date(issuedAtMillis))
+                .withClaim(JwtService.ISSUED_AT_MILLIS_CLAIM, issuedAtMillis)
+                .withExpiresAt(new Date(issuedAtMillis + ACCESS_EXPIRATION_MS))
+                .sign(algorithm));
+    }
+}
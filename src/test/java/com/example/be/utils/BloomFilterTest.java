@@ -0,0 +1,39 @@
+package com.example.be.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    private static final int INSERTIONS = 10_000;
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+
+    @Test
+    void neverMissesAnAddedValue() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.add("jti:" + i);
+        }
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertTrue(filter.mightContain("jti:" + i), "jti:" + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.add("user:" + i + "@example.com");
+        }
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("user:other-" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+        // Cho phép gấp 3 lần tỉ lệ lý thuyết để không phụ thuộc may rủi của hàm băm
+        assertTrue(falsePositives < probes * FALSE_POSITIVE_RATE * 3, "false positives: " + falsePositives);
+    }
+}